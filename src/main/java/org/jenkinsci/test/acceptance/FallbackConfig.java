@@ -18,8 +18,6 @@ import java.util.logging.Logger;
 import net.lightbody.bmp.BrowserMobProxy;
 import net.lightbody.bmp.client.ClientUtil;
 import org.apache.commons.lang.StringUtils;
-import org.eclipse.aether.RepositorySystem;
-import org.eclipse.aether.RepositorySystemSession;
 import org.eclipse.aether.artifact.DefaultArtifact;
 import org.eclipse.aether.resolution.ArtifactResult;
 import org.jenkinsci.test.acceptance.controller.JenkinsController;
@@ -38,6 +36,7 @@ import org.jenkinsci.test.acceptance.slave.LocalSlaveProvider;
 import org.jenkinsci.test.acceptance.slave.SlaveProvider;
 import org.jenkinsci.test.acceptance.utils.ElasticTime;
 import org.jenkinsci.test.acceptance.utils.IOUtil;
+import org.jenkinsci.test.acceptance.utils.PortLeases;
 import org.jenkinsci.test.acceptance.utils.SauceLabsConnection;
 import org.jenkinsci.test.acceptance.utils.aether.ArtifactResolverUtil;
 import org.jenkinsci.test.acceptance.utils.pluginreporter.ConsoleExercisedPluginReporter;
@@ -189,9 +188,10 @@ public class FallbackConfig extends AbstractModule {
 
     private WebDriver createContainerWebDriver(TestCleaner cleaner, String image, MutableCapabilities capabilities) throws IOException {
         try {
-            final int controlPort = IOUtil.randomTcpPort();
-            final int vncPort = IOUtil.randomTcpPort(5900, 6000);
-            final int displayNumber = vncPort - 5900;
+            final int controlPort = PortLeases.get().next();
+            final PortLeases.Lease vncPort = PortLeases.get().lease(5900, 6000);
+            cleaner.addTask(vncPort);
+            final int displayNumber = vncPort.getPort() - 5900;
 
             Path log = Files.createTempFile("ath-docker-browser", "log");
             LOGGER.info("Starting selenium container. Logs in " + log);
@@ -384,8 +384,7 @@ public class FallbackConfig extends AbstractModule {
      * @return the path to the form elements plug-in
      */
     @Named("form-element-path.hpi") @Provides
-    public File getFormElementsPathFile(RepositorySystem repositorySystem, RepositorySystemSession repositorySystemSession) {
-        ArtifactResolverUtil resolverUtil = new ArtifactResolverUtil(repositorySystem, repositorySystemSession);
+    public File getFormElementsPathFile(ArtifactResolverUtil resolverUtil) {
         String version = System.getenv("FORM_ELEMENT_PATH_VERSION");
         version = version == null ? "1.9" : version;
         ArtifactResult resolvedArtifact = resolverUtil.resolve(new DefaultArtifact("org.jenkins-ci.plugins", "form-element-path", "hpi", version));
@@ -435,7 +434,7 @@ public class FallbackConfig extends AbstractModule {
      * The file will exist on machine where tests run.
      */
     @Provides @Named("jenkins.war")
-    public File getJenkinsWar(RepositorySystem repositorySystem, RepositorySystemSession repositorySystemSession) {
+    public File getJenkinsWar(ArtifactResolverUtil resolverUtil) {
         try {
             return IOUtil.firstExisting(false, System.getenv("JENKINS_WAR"));
         } catch (IOException ex) {
@@ -443,7 +442,6 @@ public class FallbackConfig extends AbstractModule {
 
         String version = System.getenv("JENKINS_VERSION");
         if (version != null && !version.isEmpty()) {
-            ArtifactResolverUtil resolverUtil = new ArtifactResolverUtil(repositorySystem, repositorySystemSession);
             ArtifactResult resolvedArtifact = resolverUtil.resolve(new DefaultArtifact("org.jenkins-ci.main", "jenkins-war", "war", version));
             return resolvedArtifact.getArtifact().getFile();
         }
@@ -9,6 +9,7 @@ import java.util.regex.Pattern;
 import javax.annotation.CheckForNull;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
 import org.hamcrest.CoreMatchers;
 import org.hamcrest.Description;
 import org.openqa.selenium.By;
@@ -30,6 +31,11 @@ import hudson.util.VersionNumber;
  * @author Kohsuke Kawaguchi
  */
 public class Matchers {
+    /**
+     * Last lines of the mismatched text to describe.
+     */
+    private static final int MISMATCH_LINES = 50;
+
     /**
      * Asserts that given text is shown on page.
      */
@@ -152,6 +158,18 @@ public class Matchers {
             public boolean matchesSafely(String item) {
                 return re.matcher(item).find();
             }
+
+            @Override
+            public void describeMismatchSafely(String item, Description desc) {
+                // Items are often whole console logs, only the end is of interest
+                String[] lines = item.split("\n", -1);
+                if (lines.length <= MISMATCH_LINES) {
+                    super.describeMismatchSafely(item, desc);
+                    return;
+                }
+                desc.appendText(String.format("was (%d lines omitted)%n", lines.length - MISMATCH_LINES))
+                        .appendText(StringUtils.join(lines, '\n', lines.length - MISMATCH_LINES, lines.length));
+            }
         };
     }
 
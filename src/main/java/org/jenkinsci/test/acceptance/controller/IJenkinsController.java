@@ -21,4 +21,9 @@ public interface IJenkinsController extends Closeable {
      *                 the template will simply overwrite the existing (if any) home.
      */
     void populateJenkinsHome(byte[] template, boolean clean) throws IOException;
+
+    /**
+     * Notifies the plugins the test requires were installed.
+     */
+    void pluginsInstalled() throws IOException;
 }
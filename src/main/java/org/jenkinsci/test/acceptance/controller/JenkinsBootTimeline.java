@@ -0,0 +1,145 @@
+package org.jenkinsci.test.acceptance.controller;
+
+import javax.annotation.CheckForNull;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jenkinsci.test.acceptance.log.LogListener;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Timeline of Jenkins startup, reconstructed from the init milestones Jenkins logs.
+ *
+ * Times are in milliseconds since the Jenkins process was started. Only the first boot of the process is recorded,
+ * milestones reported by subsequent restarts are ignored.
+ */
+public class JenkinsBootTimeline implements LogListener {
+
+    /**
+     * Log messages of Jenkins init milestones, in the order they are attained.
+     */
+    public static final List<String> MILESTONES = Collections.unmodifiableList(Arrays.asList(
+            "Started initialization",
+            "Listed all plugins",
+            "Prepared all plugins",
+            "Started all plugins",
+            "Augmented all extensions",
+            "Loaded all jobs",
+            "Completed initialization"
+    ));
+
+    private final long start;
+
+    private final Map<String, Long> attained = new LinkedHashMap<>();
+
+    private String readySignal;
+    private long ready = -1;
+
+    public JenkinsBootTimeline() {
+        this(System.currentTimeMillis());
+    }
+
+    /*package*/ JenkinsBootTimeline(long start) {
+        this.start = start;
+    }
+
+    @Override
+    public void processLine(String line) throws IOException {
+        processLine(line, System.currentTimeMillis());
+    }
+
+    /*package*/ synchronized void processLine(String line, long now) {
+        if (ready >= 0) return;
+
+        for (String milestone : MILESTONES) {
+            if (line.contains(milestone) && !attained.containsKey(milestone)) {
+                attained.put(milestone, now - start);
+            }
+        }
+    }
+
+    @Override
+    public void processClose(Exception t) {
+    }
+
+    /**
+     * Record Jenkins was detected ready.
+     *
+     * @param signal The signal that detected it.
+     * @param after Milliseconds since the start.
+     */
+    public synchronized void ready(String signal, long after) {
+        readySignal = signal;
+        ready = after;
+    }
+
+    /**
+     * Time the Jenkins process was started at.
+     */
+    public long getStart() {
+        return start;
+    }
+
+    /**
+     * Milliseconds since the start the milestone was attained at.
+     */
+    public synchronized @CheckForNull Long getAttained(String milestone) {
+        return attained.get(milestone);
+    }
+
+    /**
+     * Milliseconds Jenkins took to be ready, -1 when not ready (yet).
+     */
+    public synchronized long getReady() {
+        return ready;
+    }
+
+    /**
+     * Phases the boot consisted of, each ending with a milestone and lasting since the previous one.
+     */
+    public synchronized Map<String, Long> getPhases() {
+        Map<String, Long> phases = new LinkedHashMap<>();
+        long previous = 0;
+        for (Map.Entry<String, Long> e : attained.entrySet()) {
+            phases.put(e.getKey(), e.getValue() - previous);
+            previous = e.getValue();
+        }
+        if (ready >= 0) {
+            phases.put("Ready", ready - previous);
+        }
+        return phases;
+    }
+
+    public synchronized JSONObject toJson() {
+        try {
+            JSONArray phases = new JSONArray();
+            long previous = 0;
+            for (Map.Entry<String, Long> e : attained.entrySet()) {
+                phases.put(new JSONObject()
+                        .put("name", e.getKey())
+                        .put("at", e.getValue().longValue())
+                        .put("took", e.getValue() - previous)
+                );
+                previous = e.getValue();
+            }
+            return new JSONObject()
+                    .put("phases", phases)
+                    .put("ready", ready)
+                    .put("readySignal", readySignal)
+            ;
+        } catch (JSONException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Jenkins boot " + getPhases();
+    }
+}
@@ -0,0 +1,135 @@
+package org.jenkinsci.test.acceptance.controller;
+
+import javax.annotation.Nonnull;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import com.google.inject.Injector;
+import org.apache.commons.io.FileUtils;
+import org.jenkinsci.test.acceptance.guice.TestName;
+import org.jenkinsci.test.acceptance.guice.WorldCleaner;
+import org.jenkinsci.test.acceptance.junit.FailureDiagnostics;
+import org.jenkinsci.test.acceptance.utils.ElasticTime;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Collects {@link JenkinsBootTimeline}s of all Jenkins instances booted during the run.
+ *
+ * Every timeline is attached to the diagnostics of the test as <tt>boot-timeline.json</tt>. Summary of the run,
+ * grouped by the war and plugins the instances were booted with, is written to
+ * <tt>target/diagnostics/boot-timeline-summary.json</tt> when the run finishes.
+ */
+@Singleton
+public class JenkinsBootTimelines implements Closeable {
+    private static final Logger LOGGER = Logger.getLogger(JenkinsBootTimelines.class.getName());
+
+    @Inject
+    private Injector injector;
+
+    @Inject
+    private WorldCleaner cleaner;
+
+    private final List<Entry> boots = new ArrayList<>();
+
+    /**
+     * @param label Identifies what was booted, the war checksum and plugins.
+     */
+    public void record(@Nonnull String label, @Nonnull JenkinsBootTimeline timeline) {
+        LOGGER.info(label + ": " + timeline);
+        if (timeline.getReady() >= 0) {
+            ElasticTime.recordBoot(timeline.getReady());
+        }
+
+        if (injector.getInstance(TestName.class).get() != null) { // Not booted on behalf of a test when pooled
+            try {
+                injector.getInstance(FailureDiagnostics.class).write("boot-timeline.json", timeline.toJson().put("label", label).toString(2));
+            } catch (JSONException e) {
+                throw new AssertionError(e);
+            }
+        }
+
+        synchronized (boots) {
+            if (boots.isEmpty()) {
+                cleaner.addTask(this);
+            }
+            boots.add(new Entry(label, timeline));
+        }
+    }
+
+    /**
+     * Write the summary.
+     */
+    @Override
+    public void close() throws IOException {
+        File summary = new File("target/diagnostics/boot-timeline-summary.json");
+        try {
+            FileUtils.writeStringToFile(summary, summarize().toString(2), "UTF-8");
+        } catch (JSONException e) {
+            throw new AssertionError(e);
+        }
+        LOGGER.info("Boot timeline summary written to " + summary.getAbsolutePath());
+    }
+
+    /*package*/ JSONObject summarize() throws JSONException {
+        Map<String, List<JenkinsBootTimeline>> byLabel = new LinkedHashMap<>();
+        synchronized (boots) {
+            for (Entry e : boots) {
+                List<JenkinsBootTimeline> timelines = byLabel.get(e.label);
+                if (timelines == null) {
+                    timelines = new ArrayList<>();
+                    byLabel.put(e.label, timelines);
+                }
+                timelines.add(e.timeline);
+            }
+        }
+
+        JSONArray groups = new JSONArray();
+        for (Map.Entry<String, List<JenkinsBootTimeline>> e : byLabel.entrySet()) {
+            long ready = 0;
+            long slowest = 0;
+            Map<String, Long> phases = new LinkedHashMap<>();
+            for (JenkinsBootTimeline timeline : e.getValue()) {
+                ready += timeline.getReady();
+                slowest = Math.max(slowest, timeline.getReady());
+                for (Map.Entry<String, Long> phase : timeline.getPhases().entrySet()) {
+                    Long sum = phases.get(phase.getKey());
+                    phases.put(phase.getKey(), (sum == null ? 0 : sum) + phase.getValue());
+                }
+            }
+
+            int count = e.getValue().size();
+            JSONObject avgPhases = new JSONObject();
+            for (Map.Entry<String, Long> phase : phases.entrySet()) {
+                avgPhases.put(phase.getKey(), phase.getValue() / count);
+            }
+            groups.put(new JSONObject()
+                    .put("label", e.getKey())
+                    .put("boots", count)
+                    .put("avgReady", ready / count)
+                    .put("maxReady", slowest)
+                    .put("avgPhases", avgPhases)
+            );
+        }
+        return new JSONObject().put("groups", groups);
+    }
+
+    private static final class Entry {
+        private final String label;
+        private final JenkinsBootTimeline timeline;
+
+        private Entry(String label, JenkinsBootTimeline timeline) {
+            this.label = label;
+            this.timeline = timeline;
+        }
+    }
+}
@@ -7,6 +7,7 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.URL;
+import java.util.Collection;
 import java.util.logging.Level;
 import java.util.logging.LogManager;
 import java.util.logging.Logger;
@@ -17,6 +18,7 @@ import org.jenkinsci.test.acceptance.guice.AutoCleaned;
 import org.jenkinsci.test.acceptance.log.LogListener;
 import org.jenkinsci.test.acceptance.log.LogPrinter;
 import org.jenkinsci.test.acceptance.log.NullPrinter;
+import org.jenkinsci.test.acceptance.update_center.PluginSpec;
 
 import com.cloudbees.sdk.extensibility.ExtensionPoint;
 import com.google.inject.Injector;
@@ -53,6 +55,11 @@ public abstract class JenkinsController implements IJenkinsController, AutoClean
 
     private boolean isRunning;
 
+    /**
+     * Kept running for subsequent tests so {@link #close()} at the end of the test scope is a no-op.
+     */
+    private volatile boolean retained;
+
     protected JenkinsController(Injector i) {
         i.injectMembers(this);
 
@@ -70,6 +77,19 @@ public abstract class JenkinsController implements IJenkinsController, AutoClean
         injector.injectMembers(this);
     }
 
+    /**
+     * Called prior to {@link #start()} with the plugins the test is going to need so the controller can prepare
+     * Jenkins for them. Defaults to no-op.
+     */
+    public void requirePlugins(Collection<PluginSpec> plugins) throws IOException {}
+
+    /**
+     * Called once the plugins announced by {@link #requirePlugins(Collection)} are installed, so the controller can
+     * prepare them faster next time. Defaults to no-op.
+     */
+    @Override
+    public void pluginsInstalled() throws IOException {}
+
     /**
      * Starts Jenkins.
      *
@@ -133,10 +153,24 @@ public abstract class JenkinsController implements IJenkinsController, AutoClean
      */
     @Override
     public final void close() throws IOException {
+        if (retained) return;
         stop();
         tearDown();
     }
 
+    /**
+     * Keep the instance running after the test scope it was created in, or stop doing so.
+     *
+     * @see org.jenkinsci.test.acceptance.junit.ReuseJenkins
+     */
+    public void setRetained(boolean retained) {
+        this.retained = retained;
+    }
+
+    public boolean isRetained() {
+        return retained;
+    }
+
     /**
      * Assuming the instance had already {@linkplain #stop() stopped}, destroy JENKINS_HOME and release resources
      * used by Jenkins.
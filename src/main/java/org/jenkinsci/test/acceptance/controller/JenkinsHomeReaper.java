@@ -0,0 +1,131 @@
+package org.jenkinsci.test.acceptance.controller;
+
+import javax.annotation.Nonnull;
+import javax.inject.Singleton;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Deletes JENKINS_HOME directories in the background.
+ *
+ * <p>
+ * The directory is first renamed to <tt>.trash</tt> directory next to it, which is instant on the same filesystem,
+ * and deleted lazily by a single thread. When the backlog reaches its limit, the deletion is performed by the caller
+ * so the trash can not grow unbounded. Trash left behind by previous runs is deleted as well.
+ */
+@Singleton
+public class JenkinsHomeReaper {
+    private static final Logger LOGGER = Logger.getLogger(JenkinsHomeReaper.class.getName());
+
+    private static final int BACKLOG_LIMIT = Integer.getInteger(JenkinsHomeReaper.class.getName() + ".backlog", 16);
+
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(BACKLOG_LIMIT), new ThreadFactory() {
+                @Override public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "JENKINS_HOME reaper");
+                    t.setDaemon(true); // Leftovers are deleted by the next run
+                    return t;
+                }
+            }, new ThreadPoolExecutor.CallerRunsPolicy()
+    );
+
+    private final AtomicInteger backlog = new AtomicInteger();
+    private final AtomicLong reaped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private volatile boolean sweptPreviousRuns = false;
+
+    /**
+     * Schedule the directory for deletion.
+     *
+     * @throws IOException If the directory can not be moved to trash. Nothing is scheduled in such case.
+     */
+    public void reap(@Nonnull File home) throws IOException {
+        File trash = new File(home.getParentFile(), ".trash");
+        Files.createDirectories(trash.toPath());
+        sweep(trash);
+
+        final File target = new File(trash, home.getName() + "-" + System.nanoTime());
+        Files.move(home.toPath(), target.toPath());
+        schedule(target);
+    }
+
+    private void sweep(File trash) {
+        if (sweptPreviousRuns) return;
+        sweptPreviousRuns = true;
+
+        File[] leftovers = trash.listFiles();
+        if (leftovers == null) return;
+        for (File leftover : leftovers) {
+            schedule(leftover);
+        }
+    }
+
+    private void schedule(final File target) {
+        backlog.incrementAndGet();
+        executor.execute(new Runnable() {
+            @Override public void run() {
+                try {
+                    delete(target);
+                } finally {
+                    backlog.decrementAndGet();
+                }
+            }
+        });
+    }
+
+    private void delete(File target) {
+        try {
+            FileUtils.forceDelete(target);
+            reaped.incrementAndGet();
+        } catch (IOException e) {
+            // maybe process is shutting down, wait a bit then try again
+            try {
+                Thread.sleep(5000);
+                FileUtils.forceDelete(target);
+                reaped.incrementAndGet();
+            } catch (InterruptedException | IOException e1) {
+                if (!target.exists()) return; // Deleted concurrently by other JVM
+                failed.incrementAndGet();
+                LOGGER.log(Level.WARNING, "Failed to delete " + target, e1);
+            }
+        }
+    }
+
+    /**
+     * Number of directories waiting for deletion or being deleted.
+     */
+    public int getBacklog() {
+        return backlog.get();
+    }
+
+    /**
+     * Number of directories deleted so far.
+     */
+    public long getReaped() {
+        return reaped.get();
+    }
+
+    /**
+     * Number of directories that could not be deleted.
+     */
+    public long getFailed() {
+        return failed.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("JENKINS_HOME reaper: %d pending, %d deleted, %d failed", getBacklog(), getReaped(), getFailed());
+    }
+}
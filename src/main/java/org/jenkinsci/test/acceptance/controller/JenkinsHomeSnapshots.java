@@ -0,0 +1,158 @@
+package org.jenkinsci.test.acceptance.controller;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang.StringUtils;
+import org.jenkinsci.test.acceptance.update_center.PluginSpec;
+
+import static org.apache.commons.codec.digest.DigestUtils.sha1Hex;
+
+/**
+ * Cache of JENKINS_HOME plugin directories captured after Jenkins was booted and the plugins the test needs were installed.
+ *
+ * <p>
+ * Snapshots are keyed by the checksum of jenkins.war, the plugins that were present in JENKINS_HOME before the boot
+ * and the plugins requested by the test. Restoring a snapshot into fresh JENKINS_HOME before Jenkins starts makes
+ * the plugin installation (and the restart that usually follows) a no-op.
+ *
+ * <p>
+ * Only <tt>plugins/</tt> is captured, as Jenkins is running while the snapshot is taken. The rest of JENKINS_HOME is
+ * written by Jenkins at any time so the copy could be torn, while the plugin directory does not change once the
+ * installation completed.
+ *
+ * <p>
+ * The cache is activated by pointing the <tt>JENKINS_HOME_SNAPSHOTS</tt> environment variable to a directory. The
+ * directory can be shared by concurrently running test JVMs. Note that snapshots are not invalidated when the update
+ * center publishes new plugin versions, so the directory should be wiped whenever that is a concern.
+ */
+@Singleton
+public class JenkinsHomeSnapshots {
+    private static final Logger LOGGER = Logger.getLogger(JenkinsHomeSnapshots.class.getName());
+
+    private final @CheckForNull File cacheDir;
+
+    private final JenkinsWarCache warCache;
+
+    @Inject
+    public JenkinsHomeSnapshots(JenkinsWarCache warCache) {
+        this(StringUtils.isBlank(System.getenv("JENKINS_HOME_SNAPSHOTS")) ? null : new File(System.getenv("JENKINS_HOME_SNAPSHOTS")), warCache);
+    }
+
+    @VisibleForTesting JenkinsHomeSnapshots(@CheckForNull File cacheDir) {
+        this(cacheDir, new JenkinsWarCache());
+    }
+
+    private JenkinsHomeSnapshots(@CheckForNull File cacheDir, JenkinsWarCache warCache) {
+        this.cacheDir = cacheDir;
+        this.warCache = warCache;
+    }
+
+    public boolean isEnabled() {
+        return cacheDir != null;
+    }
+
+    /**
+     * Compute the snapshot key for a JENKINS_HOME that is yet to be booted.
+     *
+     * @param war Jenkins war to be run.
+     * @param jenkinsHome JENKINS_HOME prepared for the boot.
+     * @param plugins Plugins the test requires.
+     */
+    public @Nonnull String key(@Nonnull File war, @Nonnull File jenkinsHome, @Nonnull Collection<PluginSpec> plugins) {
+        StringBuilder sb = new StringBuilder(warCache.checksum(war)).append('\n');
+
+        List<String> specs = new ArrayList<>();
+        for (PluginSpec spec : plugins) {
+            specs.add(spec.toString());
+        }
+        Collections.sort(specs);
+        sb.append(specs).append('\n');
+
+        List<String> given = new ArrayList<>();
+        File[] files = new File(jenkinsHome, "plugins").listFiles();
+        if (files != null) {
+            for (File f : files) {
+                if (f.isFile()) {
+                    given.add(f.getName() + ':' + f.length());
+                }
+            }
+        }
+        Collections.sort(given);
+        sb.append(given);
+
+        return sha1Hex(sb.toString());
+    }
+
+    /**
+     * Populate JENKINS_HOME from snapshot, if there is one.
+     *
+     * @return true if the snapshot was found and restored.
+     */
+    public boolean restore(@Nonnull String key, @Nonnull File jenkinsHome) throws IOException {
+        if (cacheDir == null) return false;
+
+        File snapshot = new File(cacheDir, key);
+        if (!snapshot.isDirectory()) return false;
+
+        long start = System.currentTimeMillis();
+        FileUtils.copyDirectory(snapshot, jenkinsHome);
+        LOGGER.info(String.format("Restored JENKINS_HOME snapshot %s in %d ms", key, System.currentTimeMillis() - start));
+        return true;
+    }
+
+    /**
+     * Store plugins of JENKINS_HOME as a snapshot, unless there already is one.
+     *
+     * Failures are logged and otherwise ignored as the cache is only an optimization.
+     */
+    public void capture(@Nonnull String key, @Nonnull File jenkinsHome) {
+        if (cacheDir == null) return;
+
+        File snapshot = new File(cacheDir, key);
+        if (snapshot.exists()) return;
+
+        File tmp = null;
+        try {
+            Files.createDirectories(cacheDir.toPath());
+            tmp = Files.createTempDirectory(cacheDir.toPath(), key + ".tmp").toFile();
+            // Skip downloads in progress, there should be none once the plugins are installed
+            FileUtils.copyDirectory(new File(jenkinsHome, "plugins"), new File(tmp, "plugins"), new FileFilter() {
+                @Override public boolean accept(File f) {
+                    return !f.getName().endsWith(".tmp");
+                }
+            });
+
+            try {
+                Files.move(tmp.toPath(), snapshot.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp.toPath(), snapshot.toPath());
+            }
+            tmp = null;
+            LOGGER.info("Captured JENKINS_HOME snapshot " + key);
+        } catch (IOException e) {
+            if (snapshot.isDirectory()) return; // Captured concurrently by other JVM
+            LOGGER.log(Level.WARNING, "Failed to capture JENKINS_HOME snapshot " + key, e);
+        } finally {
+            if (tmp != null) {
+                FileUtils.deleteQuietly(tmp);
+            }
+        }
+    }
+}
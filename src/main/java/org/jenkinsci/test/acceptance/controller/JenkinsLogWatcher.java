@@ -1,15 +1,19 @@
 package org.jenkinsci.test.acceptance.controller;
 
+import javax.annotation.CheckForNull;
 import java.io.Closeable;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
 import java.util.Date;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeoutException;
+import java.util.logging.Logger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -39,6 +43,11 @@ public class JenkinsLogWatcher implements LogListenable, Closeable {
      */
     public final Future<?> portConflict;
 
+    /**
+     * Init milestones of the boot.
+     */
+    public final JenkinsBootTimeline timeline = new JenkinsBootTimeline();
+
     public final File logFile;
 
     private InputStream pipe;
@@ -55,6 +64,9 @@ public class JenkinsLogWatcher implements LogListenable, Closeable {
 
     private final LogWatcher watcher = new LogWatcher();
 
+    private volatile String readySignal;
+    private volatile long readyAfter = -1;
+
     /**
      * @param id
      *      Short ID that indicates the log that we are watching.
@@ -67,6 +79,7 @@ public class JenkinsLogWatcher implements LogListenable, Closeable {
 
         splitter.addLogListener(printer);
         splitter.addLogListener(watcher);
+        splitter.addLogListener(timeline);
         reader = new Thread(new LogReader(this.pipe,splitter),"Log reader: "+id);
 
         ready = watcher.watch(Pattern.compile("Jenkins is fully up and running"));
@@ -92,8 +105,41 @@ public class JenkinsLogWatcher implements LogListenable, Closeable {
      * Block until Jenkins is up and running
      */
     public void waitTillReady() {
+        waitTillReady(null);
+    }
+
+    /**
+     * Block until Jenkins is up and running, as reported in the log or detected over HTTP, whichever comes first.
+     *
+     * The HTTP probe covers logs that are delayed by buffering or that do not contain the expected message.
+     *
+     * @param url URL of the Jenkins to probe, null to wait for the log only.
+     */
+    public void waitTillReady(@CheckForNull URL url) {
+        long start = System.currentTimeMillis();
+        long deadline = start + SECONDS.toMillis(JenkinsController.STARTUP_TIMEOUT);
+        long backoff = 100;
         try {
-            ready.get(JenkinsController.STARTUP_TIMEOUT, SECONDS);
+            while (true) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) throw new TimeoutException();
+                try {
+                    ready.get(url == null ? remaining : Math.min(backoff, remaining), MILLISECONDS);
+                    readySignal = "log";
+                    break;
+                } catch (TimeoutException e) {
+                    // Not in the log yet
+                }
+
+                if (url != null && !portConflict.isDone() && isResponding(url)) {
+                    readySignal = "http";
+                    break;
+                }
+                backoff = Math.min(backoff * 2, 2000);
+            }
+            readyAfter = System.currentTimeMillis() - start;
+            timeline.ready(readySignal, System.currentTimeMillis() - timeline.getStart());
+            LOGGER.info(String.format("Jenkins ready after %d ms, detected by %s", readyAfter, readySignal));
         } catch (TimeoutException e) {
             if (portConflict.isDone())
                 throw new RuntimeException("Port conflict detected");
@@ -104,6 +150,42 @@ public class JenkinsLogWatcher implements LogListenable, Closeable {
         }
     }
 
+    /**
+     * Jenkins responds with 503 until it is fully loaded. Security or setup wizard can deny the access or redirect,
+     * which is fine as well.
+     */
+    private static boolean isResponding(URL url) {
+        HttpURLConnection c = null;
+        try {
+            c = (HttpURLConnection) new URL(url, "login").openConnection();
+            c.setInstanceFollowRedirects(false);
+            c.setConnectTimeout(1000);
+            c.setReadTimeout(2000);
+            int code = c.getResponseCode();
+            return code < 400 || code == 401 || code == 403;
+        } catch (IOException e) {
+            return false; // Not listening yet
+        } finally {
+            if (c != null) {
+                c.disconnect();
+            }
+        }
+    }
+
+    /**
+     * The signal that detected Jenkins is ready, "log" or "http". Null until Jenkins is ready.
+     */
+    public @CheckForNull String getReadySignal() {
+        return readySignal;
+    }
+
+    /**
+     * Milliseconds {@link #waitTillReady(URL)} waited for Jenkins to become ready.
+     */
+    public long getReadyAfter() {
+        return readyAfter;
+    }
+
     private String failedToLoadMessage() {
         String msg = getClass()+": Could not bring up a Jenkins server";
         msg += "\nprocess is " + (reader.isAlive() ? "alive" : "dead");
@@ -125,4 +207,6 @@ public class JenkinsLogWatcher implements LogListenable, Closeable {
     public void removeLogListener(LogListener l) {
         splitter.removeLogListener(l);
     }
+
+    private static final Logger LOGGER = Logger.getLogger(JenkinsLogWatcher.class.getName());
 }
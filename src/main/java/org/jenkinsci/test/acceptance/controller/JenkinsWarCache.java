@@ -0,0 +1,189 @@
+package org.jenkinsci.test.acceptance.controller;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.inject.Singleton;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang.StringUtils;
+import org.codehaus.plexus.util.Expand;
+import org.jenkinsci.test.acceptance.utils.SHA1Sum;
+import org.jenkinsci.utils.process.CommandBuilder;
+
+/**
+ * Artifacts derived from jenkins.war that are expensive to create for every Jenkins started, shared by all the
+ * controllers of the run.
+ *
+ * <ul>
+ *     <li>Checksum of the war.</li>
+ *     <li>Exploded webroot, created once so Winstone does not extract the war for every Jenkins instance. Enabled by
+ *     pointing <tt>JENKINS_WEBROOT_CACHE</tt> environment variable to a directory.</li>
+ *     <li>Class data sharing archive of the Jenkins JVM, dumped by the first Jenkins started and used by the rest.
+ *     Enabled by <tt>JENKINS_APPCDS=true</tt> in addition to <tt>JENKINS_WEBROOT_CACHE</tt>. Requires Java 13 or newer
+ *     to run Jenkins, ignored otherwise.</li>
+ * </ul>
+ */
+@Singleton
+public class JenkinsWarCache {
+    private static final Logger LOGGER = Logger.getLogger(JenkinsWarCache.class.getName());
+
+    private static final Pattern JAVA_VERSION = Pattern.compile("version \"(?:1\\.)?(\\d+)");
+
+    private final @CheckForNull File cacheDir;
+    private final boolean appCds;
+
+    private final Map<String, String> checksums = new HashMap<>();
+    private final Map<String, Integer> javaVersions = new HashMap<>();
+    /**
+     * CDS archives being dumped by this JVM.
+     */
+    private final Map<File, Boolean> dumping = new HashMap<>();
+
+    public JenkinsWarCache() {
+        String dir = System.getenv("JENKINS_WEBROOT_CACHE");
+        this.cacheDir = StringUtils.isBlank(dir) ? null : new File(dir);
+        this.appCds = "true".equals(System.getenv("JENKINS_APPCDS"));
+    }
+
+    /**
+     * SHA-1 checksum of the war, computed once per file content.
+     */
+    public synchronized @Nonnull String checksum(@Nonnull File war) {
+        String id = war.getAbsolutePath() + ':' + war.length() + ':' + war.lastModified();
+        String sum = checksums.get(id);
+        if (sum == null) {
+            sum = new SHA1Sum(war).getSha1String();
+            checksums.put(id, sum);
+        }
+        return sum;
+    }
+
+    /**
+     * Get webroot with exploded war, extracting it if needed.
+     *
+     * @return null if the cache is not enabled.
+     */
+    public synchronized @CheckForNull File webroot(@Nonnull File war) throws IOException {
+        if (cacheDir == null) return null;
+
+        File webroot = new File(cacheDir, key(war));
+        if (new File(webroot, ".timestamp").isFile()) return webroot;
+
+        long start = System.currentTimeMillis();
+        Files.createDirectories(cacheDir.toPath());
+        File tmp = Files.createTempDirectory(cacheDir.toPath(), webroot.getName() + ".tmp").toFile();
+        try {
+            Expand expand = new Expand();
+            expand.setSrc(war);
+            expand.setDest(tmp);
+            expand.execute();
+
+            // Winstone reuses the webroot as long as the timestamp matches the war
+            File timestamp = new File(tmp, ".timestamp");
+            FileUtils.touch(timestamp);
+            timestamp.setLastModified(war.lastModified());
+
+            try {
+                Files.move(tmp.toPath(), webroot.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp.toPath(), webroot.toPath());
+            }
+            LOGGER.info(String.format("Extracted %s to %s in %d ms", war, webroot, System.currentTimeMillis() - start));
+        } catch (Exception e) {
+            if (!webroot.isDirectory()) { // Unless extracted concurrently by other JVM
+                throw new IOException("Failed to extract " + war, e);
+            }
+        } finally {
+            FileUtils.deleteQuietly(tmp);
+        }
+        return webroot;
+    }
+
+    /**
+     * JVM options to use class data sharing archive for Jenkins, or to create it if there is none yet.
+     *
+     * When the archive is being created, {@link #archiveDumped(List)} needs to be called once the Jenkins JVM exited.
+     *
+     * @param java The java executable to run Jenkins.
+     */
+    public synchronized @Nonnull List<String> appCdsOptions(@Nonnull File war, @Nonnull String java) {
+        if (cacheDir == null || !appCds) return Collections.emptyList();
+
+        Integer version = javaVersion(java);
+        if (version == null || version < 13) {
+            LOGGER.fine("AppCDS archive requires Java 13 or newer to run Jenkins, detected " + version);
+            return Collections.emptyList();
+        }
+
+        File archive = new File(cacheDir, key(war) + "-java" + version + ".jsa");
+        if (archive.isFile()) {
+            return Arrays.asList("-XX:SharedArchiveFile=" + archive, "-Xshare:auto");
+        }
+
+        if (dumping.containsKey(archive)) return Collections.emptyList(); // Some other Jenkins is creating it
+
+        dumping.put(archive, true);
+        File dump = new File(cacheDir, archive.getName() + "." + UUID.randomUUID() + ".tmp");
+        return Collections.singletonList("-XX:ArchiveClassesAtExit=" + dump);
+    }
+
+    /**
+     * Publish the archive dumped by Jenkins JVM started with {@link #appCdsOptions(File, String)}.
+     */
+    public synchronized void archiveDumped(@Nonnull List<String> options) {
+        for (String option : options) {
+            if (!option.startsWith("-XX:ArchiveClassesAtExit=")) continue;
+
+            File dump = new File(option.substring("-XX:ArchiveClassesAtExit=".length()));
+            File archive = new File(dump.getParentFile(), dump.getName().replaceFirst("[.][^.]+[.]tmp$", ""));
+            dumping.remove(archive);
+            if (!dump.isFile()) {
+                LOGGER.warning("No AppCDS archive was dumped to " + dump);
+                continue;
+            }
+            try {
+                Files.move(dump.toPath(), archive.toPath(), StandardCopyOption.ATOMIC_MOVE);
+                LOGGER.info("Created AppCDS archive " + archive);
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Failed to create AppCDS archive " + archive, e);
+                FileUtils.deleteQuietly(dump);
+            }
+        }
+    }
+
+    private String key(File war) {
+        return checksum(war) + "-" + war.lastModified();
+    }
+
+    private @CheckForNull Integer javaVersion(String java) {
+        if (javaVersions.containsKey(java)) return javaVersions.get(java);
+
+        Integer version = null;
+        try {
+            String out = new CommandBuilder(java, "-version").popen().asText();
+            Matcher m = JAVA_VERSION.matcher(out);
+            if (m.find()) {
+                version = Integer.parseInt(m.group(1));
+            }
+        } catch (IOException | InterruptedException e) {
+            LOGGER.log(Level.WARNING, "Unable to detect version of " + java, e);
+        }
+        javaVersions.put(java, version);
+        return version;
+    }
+}
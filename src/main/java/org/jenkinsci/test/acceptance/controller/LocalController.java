@@ -11,9 +11,14 @@ import java.io.PrintStream;
 import java.lang.reflect.Field;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.apache.commons.io.FileUtils;
@@ -22,6 +27,8 @@ import org.codehaus.plexus.util.StringUtils;
 import org.jenkinsci.test.acceptance.junit.FailureDiagnostics;
 import org.jenkinsci.test.acceptance.log.LogListenable;
 import org.jenkinsci.test.acceptance.log.LogListener;
+import org.jenkinsci.test.acceptance.update_center.PluginSpec;
+import org.jenkinsci.test.acceptance.utils.FileProvisioner;
 import org.jenkinsci.utils.process.CommandBuilder;
 import org.jenkinsci.utils.process.ProcessInputStream;
 import org.junit.runners.model.MultipleFailureException;
@@ -71,6 +78,31 @@ public abstract class LocalController extends JenkinsController implements LogLi
     @Inject
     private Injector injector;
 
+    @Inject
+    private JenkinsHomeSnapshots snapshots;
+
+    @Inject
+    private JenkinsHomeReaper reaper;
+
+    @Inject
+    private PluginPreProvisioner preProvisioner;
+
+    @Inject
+    private JenkinsBootTimelines bootTimelines;
+
+    @Inject
+    private JenkinsWarCache warCache;
+
+    /**
+     * Plugins the test most recently declared it requires, to tell the boot timelines apart.
+     */
+    private final List<String> requiredPlugins = new ArrayList<>();
+
+    /**
+     * Key of the {@link JenkinsHomeSnapshots} snapshot this JENKINS_HOME corresponds to, null when not tracked.
+     */
+    private String snapshotKey;
+
     /**
      * Flag to indicate if the install wizard should be run
      */
@@ -119,7 +151,8 @@ public abstract class LocalController extends JenkinsController implements LogLi
 
         if (givenPluginDir != null && givenPluginDir.isDirectory()) {
             try {
-                FileUtils.copyDirectory(givenPluginDir, pluginDir);
+                FileProvisioner.Result result = new FileProvisioner(FileProvisioner.Mode.fromEnvironment()).provision(givenPluginDir, pluginDir);
+                LOGGER.info("Provisioned plugins from " + givenPluginDir + " (" + result + ")");
             } catch (IOException e) {
                 String msg = String.format("Failed to copy plugins from %s to %s", givenPluginDir, pluginDir);
                 throw new RuntimeException(msg, e);
@@ -195,6 +228,52 @@ public abstract class LocalController extends JenkinsController implements LogLi
         installFormElementPath(new File(jenkinsHome, "plugins"));
     }
 
+    @Override
+    public void requirePlugins(Collection<PluginSpec> plugins) throws IOException {
+        requiredPlugins.clear();
+        for (PluginSpec spec : plugins) {
+            requiredPlugins.add(spec.toString());
+        }
+        Collections.sort(requiredPlugins);
+        if (!restoreHomeSnapshot(plugins) && preProvisioner.isEnabled() && !runInstallWizard && !isRunning()) {
+            preProvisioner.provision(war, jenkinsHome, plugins);
+        }
+    }
+
+    /**
+     * Populate JENKINS_HOME from a snapshot matching the plugins requested by the test, if available.
+     *
+     * Needs to be called before Jenkins is started. Once the plugins are installed, {@link #captureHomeSnapshot()}
+     * records the state for the subsequent tests unless it was restored from the snapshot already.
+     *
+     * @return true if the snapshot was restored.
+     */
+    public boolean restoreHomeSnapshot(Collection<PluginSpec> plugins) throws IOException {
+        if (!snapshots.isEnabled() || runInstallWizard || isRunning()) return false;
+
+        String key = snapshots.key(war, jenkinsHome, plugins);
+        if (snapshots.restore(key, jenkinsHome)) {
+            return true;
+        }
+        snapshotKey = key;
+        return false;
+    }
+
+    @Override
+    public void pluginsInstalled() {
+        captureHomeSnapshot();
+    }
+
+    /**
+     * Capture plugins of the current JENKINS_HOME as a snapshot if one was requested by {@link #restoreHomeSnapshot(Collection)}.
+     */
+    public void captureHomeSnapshot() {
+        if (snapshotKey == null) return;
+
+        snapshots.capture(snapshotKey, jenkinsHome);
+        snapshotKey = null;
+    }
+
     public File getJavaHome() {
         String javaHome = getenv("JENKINS_JAVA_HOME");
         File home = StringUtils.isBlank(javaHome) ? null : new File(javaHome);
@@ -225,8 +304,11 @@ public abstract class LocalController extends JenkinsController implements LogLi
         logWatcher.start();
         try {
             LOGGER.info("Waiting for Jenkins to become running in "+ this);
-            this.logWatcher.waitTillReady();
+            this.logWatcher.waitTillReady(getUrl());
             LOGGER.info("Jenkins is running in " + this);
+            // Name of the war does not tell the core versions apart, the checksum does
+            String label = war.getName() + "@" + warCache.checksum(war).substring(0, 12) + " " + requiredPlugins;
+            bootTimelines.record(label, logWatcher.timeline);
         } catch (Exception e) {
             diagnoseFailedLoad(e);
         }
@@ -282,6 +364,13 @@ public abstract class LocalController extends JenkinsController implements LogLi
 
     @Override
     public void tearDown(){
+        try {
+            reaper.reap(jenkinsHome);
+            return;
+        } catch (IOException e) {
+            LOGGER.log(Level.INFO, "Unable to move JENKINS_HOME to trash, deleting in place", e);
+        }
+
         try {
             FileUtils.forceDelete(jenkinsHome);
         } catch (IOException e) {
@@ -0,0 +1,182 @@
+package org.jenkinsci.test.acceptance.controller;
+
+import javax.annotation.Nonnull;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarFile;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.commons.io.FileUtils;
+import org.jenkinsci.test.acceptance.update_center.PluginMetadata;
+import org.jenkinsci.test.acceptance.update_center.PluginSpec;
+import org.jenkinsci.test.acceptance.update_center.UpdateCenterMetadata;
+import org.jenkinsci.test.acceptance.update_center.UpdateCenterMetadataProvider;
+
+import com.google.inject.Injector;
+import hudson.util.VersionNumber;
+
+/**
+ * Installs plugins the test requires, including their dependencies, into JENKINS_HOME before Jenkins is started.
+ *
+ * <p>
+ * Plugins are resolved from the update center metadata for the version of jenkins.war and copied to
+ * <tt>JENKINS_HOME/plugins</tt>, so Jenkins boots with everything in place and {@link org.jenkinsci.test.acceptance.junit.WithPlugins}
+ * only verifies the plugins are installed instead of installing them through the update center and restarting.
+ *
+ * <p>
+ * Activated by setting the <tt>PRE_PROVISION_PLUGINS</tt> environment variable to <tt>true</tt>. Whenever the plugins
+ * can not be resolved this way, nothing is copied and the plugins are installed by the rule as usual. The same applies
+ * when the {@link UpdateCenterMetadataProvider} in use can not load metadata before Jenkins is started.
+ */
+@Singleton
+public class PluginPreProvisioner {
+    private static final Logger LOGGER = Logger.getLogger(PluginPreProvisioner.class.getName());
+
+    @Inject
+    private Injector injector;
+
+    @Inject
+    private UpdateCenterMetadataProvider metadataProvider;
+
+    private final boolean enabled = "true".equals(System.getenv("PRE_PROVISION_PLUGINS"));
+
+    public boolean isEnabled() {
+        return enabled && metadataProvider.canLoadWithoutJenkins();
+    }
+
+    /**
+     * Copy the plugins and the dependencies not satisfied by the plugins present already into JENKINS_HOME.
+     *
+     * @param war Jenkins war to be run.
+     * @param jenkinsHome JENKINS_HOME prepared for the boot.
+     * @param plugins Plugins the test requires.
+     * @return true if all the plugins were provisioned.
+     */
+    public boolean provision(@Nonnull File war, @Nonnull File jenkinsHome, @Nonnull Collection<PluginSpec> plugins) {
+        if (plugins.isEmpty()) return true;
+
+        long start = System.currentTimeMillis();
+        File pluginDir = new File(jenkinsHome, "plugins");
+        Map<String, File> resolved = new LinkedHashMap<>();
+        try {
+            VersionNumber core = coreVersion(war);
+            Map<String, VersionNumber> installed = installed(pluginDir);
+
+            UpdateCenterMetadata ucm = metadataProvider.get(core);
+            List<PluginMetadata> missing = new ArrayList<>();
+            for (PluginMetadata p : ucm.transitiveDependenciesOf(core, installed, plugins)) {
+                VersionNumber present = installed.get(p.getName());
+                if (present == null || present.isOlderThan(new VersionNumber(p.getVersion()))) {
+                    missing.add(p);
+                }
+            }
+
+            List<File> files = PluginMetadata.resolve(injector, missing);
+            for (int i = 0; i < missing.size(); i++) {
+                resolved.put(missing.get(i).getName(), files.get(i));
+            }
+        } catch (Exception e) { // Including assumption violations, reported by the rule once Jenkins is running
+            LOGGER.log(Level.WARNING, "Unable to pre-provision " + plugins + ", installing them once Jenkins is started", e);
+            return false;
+        }
+
+        // Copy aside first so a failure does not leave the plugin directory partially provisioned
+        File stage = null;
+        try {
+            Files.createDirectories(pluginDir.toPath());
+            stage = Files.createTempDirectory(jenkinsHome.toPath(), "plugins.tmp").toFile();
+            for (Map.Entry<String, File> e : resolved.entrySet()) {
+                Files.copy(e.getValue().toPath(), new File(stage, e.getKey() + ".jpi").toPath());
+            }
+            commit(stage, pluginDir, resolved.keySet());
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to copy plugins to " + pluginDir + ", installing them once Jenkins is started", e);
+            return false;
+        } finally {
+            if (stage != null) {
+                FileUtils.deleteQuietly(stage);
+            }
+        }
+
+        LOGGER.info(String.format("Pre-provisioned %s for %s in %d ms", resolved.keySet(), plugins, System.currentTimeMillis() - start));
+        return true;
+    }
+
+    /**
+     * Move the staged plugins to the plugin directory, putting the replaced files back if any of the moves fails.
+     */
+    private static void commit(File stage, File pluginDir, Collection<String> names) throws IOException {
+        File backup = new File(stage, "replaced");
+        Files.createDirectories(backup.toPath());
+        List<File> moved = new ArrayList<>();
+        try {
+            for (String name : names) {
+                // Outdated version might have been given as .hpi
+                for (String ext : Arrays.asList(".jpi", ".hpi")) {
+                    File replaced = new File(pluginDir, name + ext);
+                    if (replaced.exists()) {
+                        Files.move(replaced.toPath(), new File(backup, replaced.getName()).toPath());
+                    }
+                }
+                File target = new File(pluginDir, name + ".jpi");
+                Files.move(new File(stage, target.getName()).toPath(), target.toPath());
+                moved.add(target);
+            }
+        } catch (IOException e) {
+            for (File f : moved) {
+                try {
+                    Files.deleteIfExists(f.toPath());
+                } catch (IOException x) {
+                    e.addSuppressed(x);
+                }
+            }
+            File[] replaced = backup.listFiles();
+            for (File f : replaced == null ? new File[0] : replaced) {
+                try {
+                    Files.move(f.toPath(), new File(pluginDir, f.getName()).toPath());
+                } catch (IOException x) {
+                    e.addSuppressed(x);
+                }
+            }
+            throw e;
+        }
+    }
+
+    private static VersionNumber coreVersion(File war) throws IOException {
+        try (JarFile jar = new JarFile(war)) {
+            String version = jar.getManifest().getMainAttributes().getValue("Jenkins-Version");
+            if (version == null) {
+                throw new IOException("No Jenkins-Version in manifest of " + war);
+            }
+            return new VersionNumber(version);
+        }
+    }
+
+    /**
+     * Versions of plugins given in the plugin directory.
+     */
+    private static Map<String, VersionNumber> installed(File pluginDir) {
+        Map<String, VersionNumber> installed = new HashMap<>();
+        File[] files = pluginDir.listFiles();
+        if (files == null) return installed;
+
+        for (File f : files) {
+            if (!f.isFile() || !(f.getName().endsWith(".jpi") || f.getName().endsWith(".hpi"))) continue;
+
+            PluginMetadata m = PluginMetadata.LocalOverride.create(f);
+            installed.put(m.getName(), new VersionNumber(m.getVersion()));
+        }
+        return installed;
+    }
+}
@@ -8,9 +8,10 @@ import java.net.URL;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
-import org.jenkinsci.test.acceptance.utils.IOUtil;
+import org.jenkinsci.test.acceptance.utils.PortLeases;
 import org.jenkinsci.utils.process.CommandBuilder;
 import org.jenkinsci.utils.process.ProcessInputStream;
 
@@ -35,10 +36,18 @@ public class WinstoneController extends LocalController {
 
     private final int httpPort;
 
+    @Inject
+    private JenkinsWarCache warCache;
+
+    /**
+     * AppCDS options the running Jenkins was started with.
+     */
+    private List<String> appCdsOptions = Collections.emptyList();
+
     @Inject
     public WinstoneController(Injector i) {
         super(i);
-        httpPort = IOUtil.randomTcpPort();
+        httpPort = PortLeases.get().next();
     }
 
     @Override
@@ -47,12 +56,18 @@ public class WinstoneController extends LocalController {
         String java = javaHome == null ? "java" : String.format("%s/bin/java",javaHome.getAbsolutePath());
         CommandBuilder cb = new CommandBuilder(java);
         cb.addAll(JENKINS_JAVA_OPTS);
+        appCdsOptions = warCache.appCdsOptions(war, java);
+        cb.addAll(appCdsOptions);
         cb.add(
                 "-Duser.language=en",
                 "-jar", war,
                 "--ajp13Port=-1",
                 "--httpPort=" + httpPort
         );
+        File webroot = warCache.webroot(war);
+        if (webroot != null) {
+            cb.add("--webroot=" + webroot);
+        }
         cb.addAll(JENKINS_OPTS);
 
         cb.env.putAll(commonLaunchEnv());
@@ -60,6 +75,21 @@ public class WinstoneController extends LocalController {
         return cb.popen();
     }
 
+    @Override
+    public void stopNow() throws IOException {
+        super.stopNow();
+        if (!appCdsOptions.isEmpty()) {
+            // The archive is written when Jenkins JVM exits
+            try {
+                process.getProcess().waitFor(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            warCache.archiveDumped(appCdsOptions);
+            appCdsOptions = Collections.emptyList();
+        }
+    }
+
     @Override
     public URL getUrl() {
         try {
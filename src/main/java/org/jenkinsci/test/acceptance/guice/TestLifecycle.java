@@ -42,6 +42,13 @@ public class TestLifecycle implements Scope {
         testScopeObjects.set(o);
     }
 
+    /**
+     * Use existing instance for the key in current test scope, instead of having it created.
+     */
+    public <T> void seed(Key<T> key, T instance) {
+        testScopeObjects.get().put(key, instance);
+    }
+
     /**
      * Returns already existing instances.
      */
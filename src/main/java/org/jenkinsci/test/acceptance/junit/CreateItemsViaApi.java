@@ -0,0 +1,52 @@
+package org.jenkinsci.test.acceptance.junit;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import org.jenkinsci.test.acceptance.po.ItemCreation;
+import org.jenkinsci.test.acceptance.po.JobsMixIn;
+import org.junit.rules.TestRule;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+
+import com.google.inject.Inject;
+import com.google.inject.Injector;
+
+/**
+ * Create items by posting their initial configuration to Jenkins instead of going through the New Item page.
+ *
+ * <p>
+ * Meant for tests that only need the items as fixtures. Note the configuration page of the item is not opened by
+ * {@link JobsMixIn#create(Class, String)} then, so it has to be opened explicitly before configuring the item.
+ *
+ * @see JobsMixIn#createViaApi(Class, String)
+ */
+@Retention(RUNTIME)
+@Target({METHOD, TYPE})
+@Inherited
+@Documented
+@RuleAnnotation(CreateItemsViaApi.RuleImpl.class)
+public @interface CreateItemsViaApi {
+
+    class RuleImpl implements TestRule {
+        @Inject
+        Injector injector;
+
+        @Override
+        public Statement apply(final Statement base, final Description d) {
+            return new Statement() {
+                @Override
+                public void evaluate() throws Throwable {
+                    injector.getInstance(ItemCreation.class).setViaApi(true);
+                    base.evaluate();
+                }
+            };
+        }
+    }
+}
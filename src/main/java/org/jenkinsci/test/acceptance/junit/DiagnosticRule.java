@@ -2,12 +2,16 @@ package org.jenkinsci.test.acceptance.junit;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.List;
 import java.util.logging.Logger;
 import javax.inject.Inject;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang.StringUtils;
 import org.jenkinsci.test.acceptance.controller.JenkinsController;
 import org.jenkinsci.test.acceptance.po.CapybaraPortingLayerImpl;
 import org.jenkinsci.test.acceptance.selenium.SanityChecker;
+import org.jenkinsci.test.acceptance.utils.ElasticTime;
+import org.jenkinsci.test.acceptance.utils.aether.ArtifactResolverUtil;
 import org.junit.rules.TestWatcher;
 import org.junit.runner.Description;
 import org.openqa.selenium.NoSuchElementException;
@@ -25,10 +29,25 @@ public class DiagnosticRule extends TestWatcher {
     JenkinsController controller;
     @Inject
     WebDriver driver;
+    @Inject
+    ElasticTime time;
+    @Inject
+    ArtifactResolverUtil resolver;
+
+    @Override
+    protected void starting(Description description) {
+        resolver.clearReport();
+    }
 
     @Override
     protected void failed(Throwable t, Description description) {
         takeScreenshot();
+        diagnostics.write("elastic-time.txt", time.toString());
+
+        List<ArtifactResolverUtil.Resolution> resolutions = resolver.getReport();
+        if (!resolutions.isEmpty()) {
+            diagnostics.write("artifact-resolution.txt", StringUtils.join(resolutions, '\n'));
+        }
 
         if (causedBy(t, NoSuchElementException.class) || causedBy(t, SanityChecker.Failure.class)) {
             writeHtmlPage();
@@ -2,8 +2,10 @@ package org.jenkinsci.test.acceptance.junit;
 
 import com.google.inject.Inject;
 import com.google.inject.Injector;
+import com.google.inject.Key;
 
 import org.jenkinsci.test.acceptance.controller.JenkinsController;
+import org.jenkinsci.test.acceptance.guice.TestLifecycle;
 import org.jenkinsci.test.acceptance.guice.World;
 import org.jenkinsci.test.acceptance.po.CapybaraPortingLayerImpl;
 import org.junit.internal.AssumptionViolatedException;
@@ -52,6 +54,11 @@ public class JenkinsAcceptanceTestRule implements MethodRule { // TODO should us
 
                 world.startTestScope(description.getDisplayName());
 
+                JenkinsController reused = injector.getInstance(JenkinsReuse.class).get(description);
+                if (reused != null) {
+                    injector.getInstance(TestLifecycle.class).seed(Key.get(JenkinsController.class), reused);
+                }
+
                 injector.injectMembers(this);
 
                 try {
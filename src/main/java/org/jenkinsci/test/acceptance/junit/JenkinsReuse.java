@@ -0,0 +1,204 @@
+package org.jenkinsci.test.acceptance.junit;
+
+import javax.annotation.CheckForNull;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.jenkinsci.test.acceptance.controller.JenkinsController;
+import org.jenkinsci.test.acceptance.guice.WorldCleaner;
+import org.jenkinsci.test.acceptance.po.Jenkins;
+import org.jenkinsci.test.acceptance.update_center.PluginSpec;
+import org.junit.runner.Description;
+
+/**
+ * Keeps the Jenkins instance retained by {@link ReuseJenkins} test, so the subsequent tests can use it.
+ *
+ * Only the most recently used instance is kept. Tests of a class run one after another so once the test that can
+ * not reuse the instance comes, it is stopped.
+ */
+@Singleton
+public class JenkinsReuse implements Closeable {
+    private static final Logger LOGGER = Logger.getLogger(JenkinsReuse.class.getName());
+
+    /**
+     * Copy global configuration files aside so they can be restored, and record the items, nodes and users present.
+     */
+    /*package*/ static final String CAPTURE =
+            "def j = jenkins.model.Jenkins.instance\n" +
+            "def baseline = new File(j.rootDir, '.reuse-baseline')\n" +
+            "baseline.deleteDir()\n" +
+            "new File(baseline, 'config').mkdirs()\n" +
+            "j.rootDir.listFiles().findAll { it.isFile() && it.name.endsWith('.xml') }.each { new File(baseline, 'config/' + it.name).bytes = it.bytes }\n" +
+            "new File(baseline, 'items').text = j.items*.name.join('\\n')\n" +
+            "new File(baseline, 'nodes').text = j.nodes*.nodeName.join('\\n')\n" +
+            "new File(baseline, 'users').text = hudson.model.User.all*.id.join('\\n')\n" +
+            "return 'captured'\n"
+    ;
+
+    /**
+     * Delete the items, nodes and users created since {@link #CAPTURE} and restore the global configuration it copied.
+     *
+     * Only the descriptors whose configuration changed are reloaded. Jenkins itself is reloaded only when its own
+     * configuration changed, or configuration nobody can reload was created or modified.
+     */
+    /*package*/ static final String RESET =
+            "def j = jenkins.model.Jenkins.instance\n" +
+            "def home = j.rootDir\n" +
+            "def baseline = new File(home, '.reuse-baseline')\n" +
+            "def recorded = { name -> new File(baseline, name).readLines() as Set }\n" +
+            "j.queue.clear()\n" +
+            "j.computers.each { c -> c.executors.each { it.interrupt() } }\n" +
+            "def items = recorded('items')\n" +
+            "j.items.findAll { !items.contains(it.name) }.each { it.delete() }\n" +
+            "def nodes = recorded('nodes')\n" +
+            "j.nodes.findAll { !nodes.contains(it.nodeName) }.each { j.removeNode(it) }\n" +
+            "def users = recorded('users')\n" +
+            "hudson.model.User.all.findAll { !users.contains(it.id) }.each { it.delete() }\n" +
+            "def config = new File(baseline, 'config')\n" +
+            "def created = home.listFiles().findAll { it.isFile() && it.name.endsWith('.xml') && !new File(config, it.name).exists() }*.name\n" +
+            "created.each { new File(home, it).delete() }\n" +
+            "def modified = config.listFiles().findAll { b -> def f = new File(home, b.name); !f.exists() || !java.util.Arrays.equals(f.bytes, b.bytes) }*.name\n" +
+            "modified.each { new File(home, it).bytes = new File(config, it).bytes }\n" +
+            "def fileOf = { d -> try { d.configFile.file.name } catch (Exception e) { null } }\n" +
+            "def descriptors = j.getExtensionList(hudson.model.Descriptor).findAll { modified.contains(fileOf(it)) }\n" +
+            "if (!created.isEmpty() || modified.contains('config.xml') || !modified.every { f -> descriptors.any { fileOf(it) == f } }) {\n" +
+            "    println('Reloading for ' + (created + modified))\n" +
+            "    j.reload()\n" +
+            "    descriptors = j.getExtensionList(hudson.model.Descriptor)\n" +
+            "}\n" +
+            "descriptors.each { d ->\n" +
+            "    try { d.load() } catch (Exception e) { println(d.id + ': ' + e) }\n" +
+            "}\n" +
+            "return 'reset'\n"
+    ;
+
+    private final WorldCleaner cleaner;
+
+    private boolean registered;
+
+    private String key;
+    private JenkinsController controller;
+
+    @Inject
+    public JenkinsReuse(WorldCleaner cleaner) {
+        this.cleaner = cleaner;
+    }
+
+    /**
+     * Identifies the tests that can share Jenkins, null if the test does not reuse Jenkins.
+     */
+    /*package*/ static @CheckForNull String keyOf(Description d) {
+        Class<?> testClass = d.getTestClass();
+        ReuseJenkins reuse = testClass == null ? null : testClass.getAnnotation(ReuseJenkins.class);
+        if (reuse == null) return null;
+
+        List<String> specs = new ArrayList<>();
+        for (PluginSpec spec : WithPlugins.RuleImpl.combinePlugins(d)) {
+            specs.add(spec.toString());
+        }
+        Collections.sort(specs);
+        return (reuse.value() == ReuseJenkins.Scope.CLASS ? testClass.getName() : "") + specs;
+    }
+
+    /**
+     * Get the instance the test can reuse.
+     *
+     * @return null if the test should get new instance.
+     */
+    public synchronized @CheckForNull JenkinsController get(Description d) {
+        if (controller == null) return null;
+
+        String k = keyOf(d);
+        if (key.equals(k)) {
+            LOGGER.info("Reusing " + controller + " for " + d.getDisplayName());
+            return controller;
+        }
+
+        release();
+        return null;
+    }
+
+    /**
+     * Retain the instance the test is running on to be used by the subsequent tests.
+     *
+     * Captures the state of Jenkins the instance will be reset to after every test.
+     */
+    public synchronized void retain(Description d, JenkinsController c, Jenkins jenkins) {
+        if (c == controller) return; // Retained already
+
+        if (controller != null) {
+            release();
+        }
+
+        String result = jenkins.runScript(CAPTURE);
+        if (result == null || !result.endsWith("captured")) {
+            LOGGER.warning("Failed to capture baseline of " + c + ", it will not be reused: " + result);
+            return;
+        }
+
+        key = keyOf(d);
+        controller = c;
+        controller.setRetained(true);
+
+        if (!registered) {
+            cleaner.addTask(this);
+            registered = true;
+        }
+    }
+
+    /**
+     * Reset the retained instance to the baseline.
+     *
+     * @return true if the instance can be reused.
+     */
+    public synchronized boolean reset(JenkinsController c, Jenkins jenkins) {
+        if (c != controller) return false;
+
+        long start = System.currentTimeMillis();
+        String result = jenkins.runScript(RESET, 120);
+        if (result == null || !result.endsWith("reset")) {
+            LOGGER.warning("Failed to reset " + c + ": " + result);
+            return false;
+        }
+        LOGGER.info(String.format("Reset %s in %d ms", c, System.currentTimeMillis() - start));
+        return true;
+    }
+
+    /**
+     * Stop retaining the instance, so it is shut down at the end of the test.
+     */
+    public synchronized void discard(JenkinsController c) {
+        if (c != controller) return;
+
+        controller.setRetained(false);
+        controller = null;
+        key = null;
+    }
+
+    /**
+     * Shut down the retained instance.
+     */
+    private void release() {
+        JenkinsController c = controller;
+        discard(c);
+        try {
+            c.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to shut down " + c, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (controller != null) {
+            release();
+        }
+    }
+}
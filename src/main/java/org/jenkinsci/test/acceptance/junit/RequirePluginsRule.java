@@ -0,0 +1,33 @@
+package org.jenkinsci.test.acceptance.junit;
+
+import org.jenkinsci.test.acceptance.controller.JenkinsController;
+import org.junit.rules.TestRule;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+
+import com.google.inject.Inject;
+
+/**
+ * Announces plugins required by {@link WithPlugins} to {@link JenkinsController} before Jenkins is started.
+ *
+ * @see JenkinsController#requirePlugins(java.util.Collection)
+ */
+@GlobalRule(priority = -1) // Run before Jenkins is started
+public class RequirePluginsRule implements TestRule {
+
+    @Inject
+    JenkinsController controller;
+
+    @Override
+    public Statement apply(final Statement base, final Description description) {
+        return new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                if (!controller.isRunning()) {
+                    controller.requirePlugins(WithPlugins.RuleImpl.combinePlugins(description));
+                }
+                base.evaluate();
+            }
+        };
+    }
+}
@@ -0,0 +1,101 @@
+package org.jenkinsci.test.acceptance.junit;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.jenkinsci.test.acceptance.controller.JenkinsController;
+import org.jenkinsci.test.acceptance.po.Jenkins;
+import org.junit.rules.TestRule;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+
+import com.google.inject.Inject;
+import com.google.inject.Injector;
+
+/**
+ * Reuse one Jenkins for all the test methods of the class instead of starting new one for every method.
+ *
+ * <p>
+ * Once the plugins are installed, the state of Jenkins is captured as a baseline. After every test, Jenkins is reset
+ * to the baseline by a script: items, nodes and users created by the test are deleted and the global configuration
+ * files the test changed are restored and reloaded. Tests that fail or that leave Jenkins in a state the script can not reset (like security realm
+ * that denies access to script console) cause the instance to be discarded, so the next test starts fresh one.
+ *
+ * <p>
+ * Only suitable for tests that do not depend on the state the reset does not cover, like the files created outside
+ * of the items, restarted Jenkins or running install wizard. Methods requiring different plugins get separate instances.
+ *
+ * @see JenkinsReuse
+ */
+@Retention(RUNTIME)
+@Target(TYPE)
+@Inherited
+@Documented
+@RuleAnnotation(value = ReuseJenkins.RuleImpl.class, priority = WithPlugins.PRIORITY + 1) // Plugins are part of the baseline
+public @interface ReuseJenkins {
+
+    /**
+     * Scope of the reuse.
+     */
+    Scope value() default Scope.CLASS;
+
+    enum Scope {
+        /**
+         * Reuse within the test class.
+         */
+        CLASS,
+        /**
+         * Reuse across test classes requiring the same plugins.
+         */
+        PLUGINS
+    }
+
+    class RuleImpl implements TestRule {
+        private static final Logger LOGGER = Logger.getLogger(ReuseJenkins.class.getName());
+
+        @Inject
+        Injector injector;
+
+        @Inject
+        JenkinsReuse reuse;
+
+        @Override
+        public Statement apply(final Statement base, final Description d) {
+            return new Statement() {
+                @Override
+                public void evaluate() throws Throwable {
+                    JenkinsController controller = injector.getInstance(JenkinsController.class);
+                    Jenkins jenkins = injector.getInstance(Jenkins.class);
+
+                    reuse.retain(d, controller, jenkins);
+
+                    boolean passed = false;
+                    try {
+                        base.evaluate();
+                        passed = true;
+                    } finally {
+                        if (!passed || !reset(controller, jenkins)) {
+                            reuse.discard(controller);
+                        }
+                    }
+                }
+
+                private boolean reset(JenkinsController controller, Jenkins jenkins) {
+                    try {
+                        return reuse.reset(controller, jenkins);
+                    } catch (RuntimeException e) {
+                        LOGGER.log(Level.WARNING, "Failed to reset " + controller + ", discarding", e);
+                        return false;
+                    }
+                }
+            };
+        }
+    }
+}
@@ -45,7 +45,7 @@ import org.jenkinsci.test.acceptance.plugins.credentials.BaseStandardCredentials
 @Target({METHOD, TYPE})
 @Inherited
 @Documented
-@RuleAnnotation(value=WithCredentials.RuleImpl.class, priority = WithPlugins.PRIORITY + 1) // requires plugins
+@RuleAnnotation(value=WithCredentials.RuleImpl.class, priority = WithPlugins.PRIORITY + 2) // requires plugins, applied after ReuseJenkins captured the baseline
 public @interface WithCredentials {
 
     int USERNAME_PASSWORD = 1;
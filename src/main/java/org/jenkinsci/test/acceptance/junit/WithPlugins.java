@@ -13,6 +13,7 @@ import java.util.Map;
 import java.util.logging.Logger;
 
 import com.google.common.annotations.VisibleForTesting;
+import org.jenkinsci.test.acceptance.controller.JenkinsController;
 import org.jenkinsci.test.acceptance.po.Jenkins;
 import org.jenkinsci.test.acceptance.po.Plugin;
 import org.jenkinsci.test.acceptance.po.PluginManager;
@@ -92,6 +93,22 @@ public @interface WithPlugins {
 
         String pluginEvaluationOutcome = System.getProperty("pluginEvaluationOutcome", PRECONFIGURED_MODE_DISABLED);
 
+        /**
+         * Plugins required by the test, considering annotations on the method and the whole class hierarchy.
+         */
+        public static List<PluginSpec> combinePlugins(Description d) {
+            List<WithPlugins> wp = new LinkedList<>();
+            wp.add(d.getAnnotation(WithPlugins.class));
+
+            Class<?> testClass = d.getTestClass();
+            while (testClass != null) {
+                wp.add(testClass.getAnnotation(WithPlugins.class));
+                testClass = testClass.getSuperclass();
+            }
+
+            return combinePlugins(wp);
+        }
+
         @VisibleForTesting static List<PluginSpec> combinePlugins(List<WithPlugins> wp) {
             Map<String, PluginSpec> plugins = new LinkedHashMap<>();
             for (WithPlugins withPlugins : wp) {
@@ -125,22 +142,15 @@ public @interface WithPlugins {
                 public void evaluate() throws Throwable {
                     jenkins = injector.getInstance(Jenkins.class);
 
-                    List<WithPlugins> wp = new LinkedList<>();
-                    wp.add(d.getAnnotation(WithPlugins.class));
-
-                    Class<?> testClass = d.getTestClass();
-                    while (testClass != null) {
-                        wp.add(testClass.getAnnotation(WithPlugins.class));
-                        testClass = testClass.getSuperclass();
-                    }
-
-                    List<PluginSpec> plugins = combinePlugins(wp);
+                    List<PluginSpec> plugins = combinePlugins(d);
 
                     // Check if we are in preconfigured plugins mode
                     if(pluginEvaluationOutcome.equals(PRECONFIGURED_MODE_DISABLED)) {
 
                         installPlugins(plugins);
 
+                        injector.getInstance(JenkinsController.class).pluginsInstalled();
+
                         for (PluginSpec plugin : plugins) {
                             Plugin installedPlugin = jenkins.getPlugin(plugin.getName());
                             VersionNumber installedVersion = installedPlugin.getVersion();
@@ -0,0 +1,546 @@
+package org.jenkinsci.test.acceptance.po;
+
+import javax.annotation.CheckForNull;
+import javax.inject.Inject;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.NameValuePair;
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.entity.UrlEncodedFormEntity;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.message.BasicHeader;
+import org.apache.http.message.BasicNameValuePair;
+import org.apache.http.util.EntityUtils;
+import org.jenkinsci.test.acceptance.guice.AutoCleaned;
+import org.jenkinsci.test.acceptance.guice.TestScope;
+import org.jenkinsci.test.acceptance.utils.ElasticTime;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.events.AbstractWebDriverEventListener;
+import org.openqa.selenium.support.events.EventFiringWebDriver;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Reads Jenkins REST API on behalf of the browser session, reusing connections within the test.
+ *
+ * <p>
+ * Requests are authenticated with the cookies of the browser so they see what the current user sees. Cookies are
+ * read from the browser once and again only after {@link Login} or when Jenkins denies the access, as the session
+ * might have changed since. Page not found can mean denied access too, but cookies are read again for that only once
+ * per session. Threads created by {@link #browserlessThreads(String)} never read the cookies, as
+ * WebDriver is not thread safe, and fail instead when the session is not established or changed.
+ *
+ * <p>
+ * Documents are cached for a short time (<tt>-Dorg.jenkinsci.test.acceptance.po.ApiClient.ttl</tt>, 250 ms by
+ * default, 0 to disable) so page objects reading several fields of the same resource do not fetch it repeatedly.
+ * The cache is discarded whenever the browser navigates, clicks or runs a script, as that can change the state of
+ * Jenkins. Identical concurrent requests are served by single fetch.
+ */
+@TestScope
+public class ApiClient implements AutoCleaned {
+    private static final Logger LOGGER = Logger.getLogger(ApiClient.class.getName());
+
+    private static final long TTL = Long.getLong(ApiClient.class.getName() + ".ttl", 250);
+
+    /**
+     * Set on threads that must not touch the browser.
+     */
+    private static final ThreadLocal<Boolean> BROWSERLESS = new ThreadLocal<>();
+
+    private WebDriver driver;
+
+    @Inject
+    private ObjectMapper jsonParser;
+
+    @Inject
+    private ElasticTime time;
+
+    private CloseableHttpClient client;
+    private RequestConfig config;
+
+    private final ResponseHandler<JsonNode> jsonHandler = new ResponseHandler<JsonNode>() {
+        @Override public JsonNode handleResponse(HttpResponse rsp) throws IOException {
+            try (InputStream in = rsp.getEntity().getContent()) {
+                return jsonParser.readTree(in);
+            }
+        }
+    };
+
+    private volatile String cookies;
+
+    /**
+     * Cookies a 404 was already refreshed for without effect, so further 404s are not worth reading the cookies again.
+     */
+    private volatile String notFoundWith;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong nanos = new AtomicLong();
+
+    /**
+     * Incremented whenever the cached documents might have become stale.
+     */
+    private volatile long generation;
+    private final ConcurrentMap<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Fetch> fetches = new ConcurrentHashMap<>();
+
+    private static final Header NO_CRUMB = new BasicHeader("Jenkins-Crumb", "");
+
+    /**
+     * Crumbs per Jenkins and session.
+     */
+    private final ConcurrentMap<String, Header> crumbs = new ConcurrentHashMap<>();
+
+    /**
+     * Cache hits and misses per requesting class.
+     */
+    private final Map<String, long[]> hits = new TreeMap<>();
+
+    @Inject
+    /*package*/ void setDriver(WebDriver driver) {
+        this.driver = driver;
+        if (driver instanceof EventFiringWebDriver) {
+            ((EventFiringWebDriver) driver).register(new Invalidator());
+        }
+    }
+
+    /**
+     * Get JSON document at the URL.
+     *
+     * @throws FileNotFoundException When there is no such resource or it is not visible to current user.
+     * @throws IOException When Jenkins fails to respond with the document.
+     */
+    public JsonNode getJson(URL url) throws IOException {
+        return getJson(url, ApiClient.class);
+    }
+
+    /**
+     * Get JSON document at the URL, served from cache if fetched recently.
+     *
+     * @param requester Class that needs the document, to report cache hits per class.
+     */
+    public JsonNode getJson(final URL url, Class<?> requester) throws IOException {
+        if (TTL <= 0) return fetch(url);
+
+        String key = url.toExternalForm();
+        long gen = generation;
+
+        Snapshot snapshot = snapshots.get(key);
+        if (snapshot != null && snapshot.generation == gen && System.currentTimeMillis() - snapshot.fetched < TTL) {
+            count(requester, true);
+            return snapshot.json;
+        }
+
+        Fetch fetch = new Fetch(url, gen);
+        Fetch running = fetches.putIfAbsent(key, fetch);
+        if (running != null && running.generation == gen) {
+            count(requester, true);
+            return running.await();
+        }
+
+        count(requester, false);
+        if (running != null) { // Stale, not to be joined
+            return fetch(url);
+        }
+
+        try {
+            long fetched = System.currentTimeMillis();
+            fetch.run();
+            JsonNode json = fetch.await();
+            snapshots.put(key, new Snapshot(json, gen, fetched));
+            return json;
+        } finally {
+            fetches.remove(key, fetch);
+        }
+    }
+
+    /**
+     * Discard cached documents.
+     */
+    public void invalidate() {
+        generation++;
+        snapshots.clear();
+    }
+
+    private void count(Class<?> requester, boolean hit) {
+        synchronized (hits) {
+            long[] counts = hits.get(requester.getSimpleName());
+            if (counts == null) {
+                hits.put(requester.getSimpleName(), counts = new long[2]);
+            }
+            counts[hit ? 0 : 1]++;
+        }
+    }
+
+    /**
+     * Cache hit rate per class that requested the documents.
+     */
+    public Map<String, Double> getHitRates() {
+        Map<String, Double> rates = new TreeMap<>();
+        synchronized (hits) {
+            for (Map.Entry<String, long[]> e : hits.entrySet()) {
+                long[] counts = e.getValue();
+                rates.put(e.getKey(), (double) counts[0] / (counts[0] + counts[1]));
+            }
+        }
+        return rates;
+    }
+
+    private JsonNode fetch(URL url) throws IOException {
+        return get(url, jsonHandler);
+    }
+
+    /**
+     * Stream the resource at the URL to the handler, bypassing the cache.
+     *
+     * @param handler Called for successful responses only.
+     * @throws FileNotFoundException When there is no such resource or it is not visible to current user.
+     * @throws IOException When Jenkins fails to respond with the resource.
+     */
+    public <T> T get(URL url, ResponseHandler<? extends T> handler) throws IOException {
+        return execute(url, new HttpGet(escape(url.toExternalForm())), null, handler);
+    }
+
+    /**
+     * Submit the form to the URL, protected by the crumb of given Jenkins.
+     *
+     * Cached documents are discarded as the submission is likely to change the state of Jenkins.
+     *
+     * @param timeoutSeconds Time to wait for the response, as the request can take long to process.
+     * @param handler Called for successful responses only.
+     */
+    public <T> T post(Jenkins jenkins, URL url, Map<String, String> form, int timeoutSeconds, ResponseHandler<? extends T> handler) throws IOException {
+        List<NameValuePair> params = new ArrayList<>();
+        for (Map.Entry<String, String> e : form.entrySet()) {
+            params.add(new BasicNameValuePair(e.getKey(), e.getValue()));
+        }
+        return post(jenkins, url, new UrlEncodedFormEntity(params, StandardCharsets.UTF_8), timeoutSeconds, handler);
+    }
+
+    /**
+     * Submit the entity to the URL, protected by the crumb of given Jenkins.
+     *
+     * @see #post(Jenkins, URL, Map, int, ResponseHandler)
+     */
+    public <T> T post(Jenkins jenkins, URL url, HttpEntity entity, int timeoutSeconds, ResponseHandler<? extends T> handler) throws IOException {
+        HttpPost post = new HttpPost(escape(url.toExternalForm()));
+        post.setEntity(entity);
+        int timeout = (int) time.milliseconds(TimeUnit.SECONDS.toMillis(timeoutSeconds));
+        client();
+        post.setConfig(RequestConfig.copy(config).setSocketTimeout(timeout).build());
+
+        try {
+            return execute(url, post, jenkins, handler);
+        } finally {
+            invalidate();
+        }
+    }
+
+    private <T> T execute(URL url, HttpRequestBase request, @CheckForNull Jenkins jenkins, ResponseHandler<? extends T> handler) throws IOException {
+        String cookies = this.cookies;
+        boolean fresh = cookies == null;
+        if (fresh) {
+            cookies = refreshCookies();
+        }
+
+        long start = System.nanoTime();
+        try (CloseableHttpResponse rsp = send(request, cookies, jenkins)) {
+            int status = rsp.getStatusLine().getStatusCode();
+            boolean notFound = status == HttpStatus.SC_NOT_FOUND && !cookies.equals(notFoundWith);
+            if (!fresh && (isDenied(status) || notFound) && !isBrowserless()) {
+                String refreshed = refreshCookies();
+                if (!refreshed.equals(cookies)) { // Session changed, retry as the current user
+                    EntityUtils.consume(rsp.getEntity());
+                    try (CloseableHttpResponse retry = send(request, refreshed, jenkins)) {
+                        return handle(url, retry, handler);
+                    }
+                }
+                if (notFound) { // Missing indeed, not hidden from stale session
+                    notFoundWith = cookies;
+                }
+            }
+            return handle(url, rsp, handler);
+        } finally {
+            requests.incrementAndGet();
+            nanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Read the cookies from the browser again, before the next request.
+     */
+    public void resetAuthentication() {
+        cookies = null;
+    }
+
+    /**
+     * Number of requests made.
+     */
+    public long getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * Average request latency in milliseconds.
+     */
+    public double getAverageLatency() {
+        long count = requests.get();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(nanos.get()) / 1000.0 / count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (client != null) {
+            LOGGER.info(toString());
+            client.close();
+            client = null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("API client: %d requests, %.1f ms on average, cache hit rates %s", getRequests(), getAverageLatency(), getHitRates());
+    }
+
+    private synchronized CloseableHttpClient client() {
+        if (client == null) {
+            int timeout = (int) time.milliseconds(10000);
+            PoolingHttpClientConnectionManager connections = new PoolingHttpClientConnectionManager();
+            connections.setDefaultMaxPerRoute(8);
+            client = HttpClients.custom()
+                    .setConnectionManager(connections)
+                    .disableCookieManagement() // Cookies are the browser's
+                    .setDefaultRequestConfig(config = RequestConfig.custom()
+                            .setConnectTimeout(timeout)
+                            .setSocketTimeout(timeout)
+                            .build()
+                    )
+                    .build()
+            ;
+        }
+        return client;
+    }
+
+    private CloseableHttpResponse send(HttpRequestBase request, String cookies, @CheckForNull Jenkins jenkins) throws IOException {
+        if (cookies.isEmpty()) {
+            request.removeHeaders("Cookie");
+        } else {
+            request.setHeader("Cookie", cookies);
+        }
+        if (jenkins != null) {
+            Header crumb = crumb(jenkins, cookies);
+            if (crumb != NO_CRUMB) {
+                request.setHeader(crumb);
+            }
+        }
+        return client().execute(request);
+    }
+
+    /**
+     * Get the crumb for the session, {@link #NO_CRUMB} if Jenkins is not protected against CSRF.
+     */
+    private Header crumb(Jenkins jenkins, String cookies) throws IOException {
+        String key = jenkins.url.toExternalForm() + '\n' + cookies;
+        Header crumb = crumbs.get(key);
+        if (crumb != null) return crumb;
+
+        URL url = jenkins.url("crumbIssuer/api/json");
+        try (CloseableHttpResponse rsp = send(new HttpGet(url.toExternalForm()), cookies, null)) {
+            if (rsp.getStatusLine().getStatusCode() == HttpStatus.SC_NOT_FOUND) {
+                EntityUtils.consume(rsp.getEntity());
+                crumb = NO_CRUMB;
+            } else {
+                JsonNode json = handle(url, rsp, jsonHandler);
+                crumb = new BasicHeader(json.get("crumbRequestField").asText(), json.get("crumb").asText());
+            }
+        }
+        crumbs.put(key, crumb);
+        return crumb;
+    }
+
+    /**
+     * Tree queries use characters {@link java.net.URI} does not accept unescaped.
+     */
+    private static String escape(String url) {
+        int query = url.indexOf('?');
+        if (query < 0) return url;
+        return url.substring(0, query) + url.substring(query)
+                .replace("[", "%5B").replace("]", "%5D").replace("{", "%7B").replace("}", "%7D");
+    }
+
+    private <T> T handle(URL url, CloseableHttpResponse rsp, ResponseHandler<? extends T> handler) throws IOException {
+        HttpEntity entity = rsp.getEntity();
+        int status = rsp.getStatusLine().getStatusCode();
+        if (status != HttpStatus.SC_OK) {
+            EntityUtils.consume(entity);
+            String msg = "Server returned HTTP response code: " + status + " for URL: " + url;
+            throw status == HttpStatus.SC_NOT_FOUND ? new FileNotFoundException(msg) : new StatusException(msg, status);
+        }
+
+        try {
+            return handler.handleResponse(rsp);
+        } finally {
+            EntityUtils.consume(entity); // Release the connection for reuse
+        }
+    }
+
+    /**
+     * Jenkins also responds with 404 for items the user is not permitted to see, but that is mostly a missing page so
+     * it is retried only once per session.
+     */
+    private static boolean isDenied(int status) {
+        return status == HttpStatus.SC_UNAUTHORIZED || status == HttpStatus.SC_FORBIDDEN;
+    }
+
+    /**
+     * Jenkins responded with unexpected status, other than 404 reported by {@link FileNotFoundException}.
+     */
+    public static final class StatusException extends IOException {
+        private final int status;
+
+        private StatusException(String message, int status) {
+            super(message);
+            this.status = status;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+    }
+
+    private static final class Snapshot {
+        private final JsonNode json;
+        private final long generation;
+        private final long fetched;
+
+        private Snapshot(JsonNode json, long generation, long fetched) {
+            this.json = json;
+            this.generation = generation;
+            this.fetched = fetched;
+        }
+    }
+
+    private final class Fetch extends FutureTask<JsonNode> {
+        private final long generation;
+
+        private Fetch(final URL url, long generation) {
+            super(new Callable<JsonNode>() {
+                @Override public JsonNode call() throws IOException {
+                    return fetch(url);
+                }
+            });
+            this.generation = generation;
+        }
+
+        private JsonNode await() throws IOException {
+            try {
+                return get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while reading JSON");
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) throw (IOException) cause;
+                if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+                throw new IOException(cause);
+            }
+        }
+    }
+
+    /**
+     * Anything the browser does can change the state of Jenkins.
+     */
+    private final class Invalidator extends AbstractWebDriverEventListener {
+        @Override public void afterNavigateTo(String url, WebDriver driver) {
+            invalidate();
+        }
+
+        @Override public void afterNavigateBack(WebDriver driver) {
+            invalidate();
+        }
+
+        @Override public void afterNavigateForward(WebDriver driver) {
+            invalidate();
+        }
+
+        @Override public void afterNavigateRefresh(WebDriver driver) {
+            invalidate();
+        }
+
+        @Override public void afterClickOn(WebElement element, WebDriver driver) {
+            invalidate();
+        }
+
+        @Override public void afterScript(String script, WebDriver driver) {
+            invalidate();
+        }
+    }
+
+    /**
+     * Create threads that use the client without ever consulting the browser.
+     */
+    /*package*/ static ThreadFactory browserlessThreads(final String name) {
+        final AtomicInteger count = new AtomicInteger();
+        return new ThreadFactory() {
+            @Override public Thread newThread(final Runnable r) {
+                Thread t = new Thread(new Runnable() {
+                    @Override public void run() {
+                        BROWSERLESS.set(true);
+                        r.run();
+                    }
+                }, name + "-" + count.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }
+        };
+    }
+
+    private static boolean isBrowserless() {
+        return Boolean.TRUE.equals(BROWSERLESS.get());
+    }
+
+    private String refreshCookies() throws IOException {
+        if (isBrowserless()) {
+            throw new IOException("Unable to read the browser cookies from " + Thread.currentThread().getName() + ", establish the session on the test thread first");
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (Cookie c : driver.manage().getCookies()) {
+            if (sb.length() > 0) sb.append("; ");
+            sb.append(c.getName()).append('=').append(c.getValue());
+        }
+        return cookies = sb.toString();
+    }
+}
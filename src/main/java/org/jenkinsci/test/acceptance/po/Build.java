@@ -1,16 +1,19 @@
 package org.jenkinsci.test.acceptance.po;
 
+import java.io.IOException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.concurrent.Callable;
-import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 
+import org.apache.http.HttpResponse;
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.util.EntityUtils;
 import org.hamcrest.Description;
 import org.jenkinsci.test.acceptance.Matcher;
 import org.jenkinsci.test.acceptance.Matchers;
-import org.jenkinsci.test.acceptance.junit.Wait;
 import com.fasterxml.jackson.databind.JsonNode;
 import org.openqa.selenium.Alert;
 import org.openqa.selenium.By;
@@ -69,14 +72,7 @@ public class Build extends ContainerPageObject {
     }
 
     public Build waitUntilStarted(int timeout) {
-        waitFor().withMessage("Next build of %s is started", job)
-                .withTimeout(timeout, TimeUnit.SECONDS)
-                .until(new Callable<Boolean>() {
-                    @Override
-                    public Boolean call() {
-                        return hasStarted();
-                    }
-        });
+        getWatcher().waitUntilStarted(Collections.singleton(this), timeout);
         return this;
     }
 
@@ -106,22 +102,25 @@ public class Build extends ContainerPageObject {
         // one can see what the build is doing
         visit("console");
 
-        waitFor().withMessage("Build %s is finished", this)
-                .withTimeout(timeout, TimeUnit.SECONDS)
-                .until(new Wait.Predicate<Boolean>() {
-                    @Override
-                    public Boolean apply() throws Exception {
-                        return !isInProgress();
-                    }
-
-                    @Override
-                    public String diagnose(Throwable lastException, String message) {
-                        return "Console output:\n" + Build.this.getConsole() + "\n";
-                    }
-        });
+        getWatcher().waitUntilFinished(Collections.singleton(this), timeout);
         return this;
     }
 
+    /**
+     * Tracks this build along with the others of the test.
+     */
+    public BuildWatcher.Watch watch() {
+        return getWatcher().watch(this);
+    }
+
+    private BuildWatcher getWatcher() {
+        return injector.getInstance(BuildWatcher.class);
+    }
+
+    /*package*/ void finished(Result result) {
+        this.result = result;
+    }
+
     public boolean isInProgress() {
         if (result != null) {
             return false;
@@ -158,12 +157,36 @@ public class Build extends ContainerPageObject {
         return visit(getConsoleTextUrl()).findElement(By.tagName("pre")).getText();
     }
 
+    /**
+     * Complete console output read without the browser.
+     */
+    public String getConsoleText() {
+        try {
+            return injector.getInstance(ApiClient.class).get(getConsoleTextUrl(), new ResponseHandler<String>() {
+                @Override public String handleResponse(HttpResponse rsp) throws IOException {
+                    return EntityUtils.toString(rsp.getEntity(), StandardCharsets.UTF_8);
+                }
+            });
+        } catch (IOException e) {
+            throw new AssertionError("Failed to read console output of " + this, e);
+        }
+    }
+
+    /**
+     * Read console output incrementally without the browser, suitable for huge logs.
+     *
+     * Patterns are matched line by line, use {@link #getConsoleText()} for patterns spanning several lines.
+     */
+    public ConsoleStream streamConsole() {
+        return new ConsoleStream(this);
+    }
+
     /**
      * @deprecated Use {@link org.jenkinsci.test.acceptance.Matchers#containsRegexp} instead.
      */
     @Deprecated
     public Build shouldContainsConsoleOutput(String fragment) {
-        assertThat(this.getConsole(), Matchers.containsRegexp(fragment, Pattern.MULTILINE));
+        assertThat(getConsoleText(), Matchers.containsRegexp(fragment, Pattern.MULTILINE));
         return this;
     }
 
@@ -172,7 +195,7 @@ public class Build extends ContainerPageObject {
      */
     @Deprecated
     public Build shouldNotContainsConsoleOutput(String fragment) {
-        assertThat(this.getConsole(), not(Matchers.containsRegexp(fragment, Pattern.MULTILINE)));
+        assertThat(getConsoleText(), not(Matchers.containsRegexp(fragment, Pattern.MULTILINE)));
         return this;
     }
 
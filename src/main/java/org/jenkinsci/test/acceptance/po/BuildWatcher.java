@@ -0,0 +1,337 @@
+package org.jenkinsci.test.acceptance.po;
+
+import javax.annotation.CheckForNull;
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import org.jenkinsci.test.acceptance.guice.TestScope;
+import org.jenkinsci.test.acceptance.junit.Wait;
+import org.jenkinsci.test.acceptance.utils.ElasticTime;
+import org.openqa.selenium.NoSuchElementException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Tracks any number of builds with single poll loop.
+ *
+ * <p>
+ * Every round reads the recent builds of each job the watched builds belong to with one projected query, so waiting
+ * for N builds of the same job costs the same as waiting for one. The rounds are driven by the threads waiting for
+ * the builds rather than by a background thread, as reading the API might need to consult the browser.
+ *
+ * <p>
+ * {@link Job#scheduleBuild()} and {@link MatrixBuild#getConfigurations()} register the builds they return so
+ * waiting for any of them refreshes the state of all the others.
+ */
+@TestScope
+public class BuildWatcher {
+    private static final Logger LOGGER = Logger.getLogger(BuildWatcher.class.getName());
+
+    /**
+     * Number of the most recent builds of the job read in every round.
+     */
+    private static final int WINDOW = 50;
+
+    private static final long INTERVAL = 500;
+
+    @Inject
+    private ElasticTime time;
+
+    private final Map<String, Watch> watches = new LinkedHashMap<>();
+
+    /**
+     * Watches of permalinks not pointing to any build when requested, until they finish.
+     */
+    private final List<Watch> unnumbered = new ArrayList<>();
+
+    private long lastRound;
+    private long rounds;
+    private long queries;
+
+    /**
+     * Start tracking the build.
+     *
+     * Builds referred by permalink are resolved to the build the permalink points to at the time of the call. Such
+     * builds that do not exist yet are tracked by the permalink, separately from any other call.
+     *
+     * @return Watch completed as the build starts and finishes. Same instance for builds of the same number.
+     */
+    public synchronized Watch watch(Build build) {
+        Build numbered = resolve(build);
+        if (numbered == null) {
+            Watch watch = new Watch(build);
+            watch.register(build);
+            unnumbered.add(watch);
+            return watch;
+        }
+
+        String key = numbered.url.toExternalForm();
+        Watch watch = watches.get(key);
+        if (watch == null) {
+            watches.put(key, watch = new Watch(numbered));
+        }
+        watch.register(build);
+        return watch;
+    }
+
+    /**
+     * Build referred by its number, null if it is a permalink that does not point to a build yet.
+     */
+    private @CheckForNull Build resolve(Build build) {
+        if (build instanceof MatrixRun || Watch.numberOf(build) != null) return build;
+
+        try {
+            queries++;
+            return build.job.build(build.getJson("tree=number").get("number").asInt());
+        } catch (NoSuchElementException e) {
+            return null;
+        }
+    }
+
+    public List<Watch> watch(Collection<? extends Build> builds) {
+        List<Watch> list = new ArrayList<>(builds.size());
+        for (Build b : builds) {
+            list.add(watch(b));
+        }
+        return list;
+    }
+
+    public void waitUntilStarted(Collection<? extends Build> builds, int timeout) {
+        await(builds, false, timeout);
+    }
+
+    public void waitUntilFinished(Collection<? extends Build> builds, int timeout) {
+        await(builds, true, timeout);
+    }
+
+    private void await(Collection<? extends Build> builds, final boolean finish, int timeout) {
+        final List<Watch> awaited = watch(builds);
+        if (pending(awaited, finish).isEmpty()) return;
+
+        String message;
+        if (awaited.size() == 1) {
+            Build b = awaited.get(0).build;
+            message = finish
+                    ? String.format("Build %s is finished", b)
+                    : String.format("Next build of %s is started", b.job)
+            ;
+        } else {
+            message = String.format("%d builds are %s", awaited.size(), finish ? "finished" : "started");
+        }
+
+        new Wait<>(this, time)
+                .pollingEvery(INTERVAL, TimeUnit.MILLISECONDS)
+                .withTimeout(timeout, TimeUnit.SECONDS)
+                .withMessage(message)
+                .until(new Wait.Predicate<Boolean>() {
+                    @Override
+                    public Boolean apply() {
+                        poll();
+                        return pending(awaited, finish).isEmpty();
+                    }
+
+                    @Override
+                    public String diagnose(Throwable lastException, String message) {
+                        List<Watch> pending = pending(awaited, finish);
+                        if (!finish) return "Not started: " + pending;
+
+                        StringBuilder sb = new StringBuilder();
+                        for (Watch w : pending) {
+                            if (awaited.size() > 1) {
+                                sb.append(w.build).append(' ');
+                            }
+                            sb.append("Console output:\n").append(w.build.getConsole()).append('\n');
+                        }
+                        return sb.toString();
+                    }
+        });
+    }
+
+    private static List<Watch> pending(List<Watch> watches, boolean finish) {
+        List<Watch> pending = new ArrayList<>();
+        for (Watch w : watches) {
+            if (!(finish ? w.finished : w.started).isDone()) {
+                pending.add(w);
+            }
+        }
+        return pending;
+    }
+
+    /**
+     * Refresh the state of all the builds being watched, unless refreshed recently.
+     */
+    public synchronized void poll() {
+        long now = System.currentTimeMillis();
+        if (now - lastRound < INTERVAL) return;
+        lastRound = now;
+        rounds++;
+
+        for (Iterator<Watch> it = unnumbered.iterator(); it.hasNext();) {
+            if (it.next().finished.isDone()) {
+                it.remove();
+            }
+        }
+
+        List<Watch> all = new ArrayList<>(watches.values());
+        all.addAll(unnumbered);
+        Map<String, List<Watch>> byJob = new LinkedHashMap<>();
+        for (Watch w : all) {
+            if (w.finished.isDone()) continue;
+
+            String job = w.build.job.url.toExternalForm();
+            List<Watch> list = byJob.get(job);
+            if (list == null) {
+                byJob.put(job, list = new ArrayList<>());
+            }
+            list.add(w);
+        }
+
+        for (List<Watch> list : byJob.values()) {
+            poll(list.get(0).build.job, list);
+        }
+    }
+
+    private void poll(Job job, List<Watch> list) {
+        List<Watch> individually = new ArrayList<>();
+        Map<Integer, JsonNode> recent = new LinkedHashMap<>();
+        int oldest = Integer.MAX_VALUE;
+
+        boolean byNumber = false;
+        for (Watch w : list) {
+            if (w.number == null) {
+                individually.add(w);
+            } else {
+                byNumber = true;
+            }
+        }
+
+        if (byNumber) {
+            try {
+                queries++;
+                JsonNode builds = job.getJson("tree=builds[number,building,result]{0," + WINDOW + "}").get("builds");
+                for (JsonNode b : builds) {
+                    int n = b.get("number").asInt();
+                    recent.put(n, b);
+                    oldest = Math.min(oldest, n);
+                }
+            } catch (NoSuchElementException e) {
+                LOGGER.fine("Failed to read builds of " + job + ": " + e.getMessage());
+                return;
+            }
+        }
+
+        for (Watch w : list) {
+            if (w.number == null) continue;
+
+            JsonNode b = recent.get(w.number);
+            if (b != null) {
+                w.update(b);
+            } else if (recent.size() >= WINDOW && w.number < oldest) {
+                individually.add(w); // Too old to be listed
+            }
+            // Otherwise not started yet
+        }
+
+        for (Watch w : individually) {
+            try {
+                queries++;
+                w.update(w.build.getJson("tree=number,building,result"));
+            } catch (NoSuchElementException e) {
+                // Not started yet
+            }
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("Build watcher: %d builds, %d rounds, %d queries", watches.size() + unnumbered.size(), rounds, queries);
+    }
+
+    /**
+     * Build being watched.
+     */
+    public static final class Watch {
+        public final Build build;
+
+        private final @CheckForNull Integer number;
+
+        private final CompletableFuture<Build> started = new CompletableFuture<>();
+        private final CompletableFuture<Build> finished = new CompletableFuture<>();
+
+        /**
+         * Instances referring to the build, to be told the result.
+         */
+        private final List<Build> registered = new ArrayList<>();
+        private @CheckForNull Build.Result result;
+
+        private Watch(Build build) {
+            this.build = build;
+            this.number = numberOf(build instanceof MatrixRun ? ((MatrixRun) build).getBuild() : build);
+        }
+
+        /**
+         * Completed once the build starts.
+         */
+        public CompletableFuture<Build> started() {
+            return started;
+        }
+
+        /**
+         * Completed once the build finishes.
+         */
+        public CompletableFuture<Build> finished() {
+            return finished;
+        }
+
+        private void register(Build build) {
+            for (Build b : registered) {
+                if (b == build) return;
+            }
+            registered.add(build);
+            if (result != null) {
+                build.finished(result);
+            }
+        }
+
+        private void update(JsonNode json) {
+            started.complete(build);
+
+            JsonNode result = json.get("result");
+            if (!json.get("building").booleanValue() && result != null && !result.isNull()) {
+                this.result = Build.Result.valueOf(result.asText());
+                for (Build b : registered) {
+                    b.finished(this.result);
+                }
+                finished.complete(build);
+            }
+        }
+
+        /**
+         * Build number, null in case the build is referred by permalink.
+         */
+        private static @CheckForNull Integer numberOf(Build build) {
+            String path = build.url.getPath();
+            if (path.endsWith("/")) {
+                path = path.substring(0, path.length() - 1);
+            }
+            try {
+                return Integer.valueOf(path.substring(path.lastIndexOf('/') + 1));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return build.toString();
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package org.jenkinsci.test.acceptance.po;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.jenkinsci.test.acceptance.guice.AutoCleaned;
+import org.jenkinsci.test.acceptance.guice.TestScope;
+
+import com.google.inject.Injector;
+
+/**
+ * Creates large numbers of items, views and agents for scale tests.
+ *
+ * <p>
+ * Everything is created over HTTP from templates, several requests at a time
+ * (<tt>-Dorg.jenkinsci.test.acceptance.po.BulkFixtures.parallelism</tt>, 8 by default). Only the first request is made
+ * by the test thread, so the session can be read from the browser, the others never touch it.
+ * Progress is logged as the creation proceeds. Returned page objects are plain handles, nothing is read from Jenkins
+ * to create them.
+ */
+@TestScope
+public class BulkFixtures implements AutoCleaned {
+    private static final Logger LOGGER = Logger.getLogger(BulkFixtures.class.getName());
+
+    private static final int PARALLELISM = Integer.getInteger(BulkFixtures.class.getName() + ".parallelism", 8);
+
+    /**
+     * Agents created by single script.
+     */
+    private static final int AGENT_BATCH = 50;
+
+    private static final String LIST_VIEW =
+            "<?xml version='1.0' encoding='UTF-8'?>\n" +
+            "<hudson.model.ListView>\n" +
+            "  <filterExecutors>false</filterExecutors>\n" +
+            "  <filterQueue>false</filterQueue>\n" +
+            "  <properties class='hudson.model.View$PropertyList'/>\n" +
+            "  <jobNames>\n" +
+            "    <comparator class='hudson.util.CaseInsensitiveComparator'/>\n" +
+            "  </jobNames>\n" +
+            "  <jobFilters/>\n" +
+            "  <recurse>false</recurse>\n" +
+            "</hudson.model.ListView>\n"
+    ;
+
+    private static final String AGENTS =
+            "def j = jenkins.model.Jenkins.instance\n" +
+            "[%s].each { name ->\n" +
+            "    def agent = new hudson.slaves.DumbSlave(name, '%s' + name, new hudson.slaves.JNLPLauncher())\n" +
+            "    agent.numExecutors = 1\n" +
+            "    j.addNode(agent)\n" +
+            "}\n" +
+            "return 'created'\n"
+    ;
+
+    @Inject
+    private Injector injector;
+
+    @Inject
+    private Jenkins jenkins;
+
+    private ExecutorService executor;
+
+    /**
+     * Create items of the type from its {@linkplain TopLevelItem#getInitialConfigXml() initial configuration}.
+     *
+     * @param jobs Where to create the items, like {@link Jenkins#jobs} or {@link Folder#getJobs()}.
+     */
+    public <T extends TopLevelItem> List<T> items(JobsMixIn jobs, Class<T> type, int count) {
+        String xml = jobs.get(type, "template").getInitialConfigXml();
+        if (xml == null) {
+            throw new IllegalArgumentException(type + " can not be created without the UI");
+        }
+        return items(jobs, type, count, xml);
+    }
+
+    /**
+     * Create items from the configuration.
+     */
+    public <T extends TopLevelItem> List<T> items(final JobsMixIn jobs, final Class<T> type, int count, final String configXml) {
+        List<String> names = names(count);
+        run(type.getSimpleName(), names, new Creation() {
+            @Override public void create(String name) {
+                jobs.createFromXml(type, name, configXml);
+            }
+        });
+
+        List<T> items = new ArrayList<>(count);
+        for (String name : names) {
+            items.add(jobs.get(type, name));
+        }
+        return items;
+    }
+
+    /**
+     * Create list views.
+     *
+     * @param views Where to create the views, like {@link Jenkins#views}.
+     */
+    public List<ListView> listViews(final ViewsMixIn views, int count) {
+        List<String> names = names(count);
+        run("ListView", names, new Creation() {
+            @Override public void create(String name) throws IOException {
+                URL url = views.url("createView?name=%s", URLEncoder.encode(name, "UTF-8"));
+                post(url, LIST_VIEW);
+            }
+        });
+
+        List<ListView> list = new ArrayList<>(count);
+        for (String name : names) {
+            list.add(views.get(ListView.class, name));
+        }
+        return list;
+    }
+
+    /**
+     * Create agents that are never launched, to populate Jenkins with nodes.
+     *
+     * @param remoteFs Base directory of the agents' file systems, the name of the agent is appended.
+     */
+    public List<DumbSlave> agents(int count, final String remoteFs) {
+        List<String> names = names(count);
+        List<String> batches = new ArrayList<>();
+        for (int i = 0; i < count; i += AGENT_BATCH) {
+            StringBuilder quoted = new StringBuilder();
+            for (String name : names.subList(i, Math.min(count, i + AGENT_BATCH))) {
+                if (quoted.length() > 0) quoted.append(", ");
+                quoted.append('\'').append(name).append('\'');
+            }
+            batches.add(quoted.toString());
+        }
+
+        run("agent batch", batches, new Creation() {
+            @Override public void create(String batch) throws IOException {
+                // Not runScript, that can fall back to the browser
+                String out = jenkins.scriptText(String.format(AGENTS, batch, remoteFs.replace("\\", "\\\\").replace("'", "\\'")), 300);
+                if (out == null || !out.endsWith("created")) {
+                    throw new AssertionError("Failed to create agents: " + out);
+                }
+            }
+        });
+
+        List<DumbSlave> agents = new ArrayList<>(count);
+        for (String name : names) {
+            agents.add(jenkins.slaves.get(DumbSlave.class, name));
+        }
+        return agents;
+    }
+
+    private List<String> names(int count) {
+        String prefix = PageObject.createRandomName();
+        List<String> names = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            names.add(String.format("%s-%05d", prefix, i));
+        }
+        return names;
+    }
+
+    private void post(URL url, String xml) throws IOException {
+        injector.getInstance(ApiClient.class).post(
+                jenkins, url, new StringEntity(xml, ContentType.create("application/xml", StandardCharsets.UTF_8)), 30,
+                new ResponseHandler<Void>() {
+                    @Override public Void handleResponse(HttpResponse rsp) {
+                        return null;
+                    }
+                }
+        );
+    }
+
+    /*package*/ interface Creation {
+        void create(String name) throws Exception;
+    }
+
+    /**
+     * Create everything, the first one synchronously so the session and crumb are established by the test thread.
+     *
+     * The rest is created by threads that never touch the browser. Creation is cancelled after the first failure.
+     */
+    /*package*/ void run(String kind, List<String> names, final Creation creation) {
+        final Progress progress = new Progress(kind, names.size());
+        if (names.isEmpty()) return;
+
+        try {
+            creation.create(names.get(0));
+        } catch (Exception e) {
+            throw new AssertionError("Failed to create " + kind + " " + names.get(0), e);
+        }
+        progress.done();
+
+        CompletionService<Void> completion = new ExecutorCompletionService<>(executor());
+        List<Future<Void>> futures = new ArrayList<>();
+        for (final String name : names.subList(1, names.size())) {
+            futures.add(completion.submit(new Callable<Void>() {
+                @Override public Void call() throws Exception {
+                    creation.create(name);
+                    progress.done();
+                    return null;
+                }
+            }));
+        }
+
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                completion.take().get(); // In the order of completion, to stop at the first failure
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError("Interrupted creating " + kind, e);
+        } catch (ExecutionException e) {
+            throw new AssertionError("Failed to create " + kind + ": " + progress, e.getCause());
+        } finally {
+            for (Future<?> f : futures) {
+                f.cancel(true);
+            }
+            LOGGER.info(progress.toString());
+        }
+    }
+
+    private synchronized ExecutorService executor() {
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(PARALLELISM, ApiClient.browserlessThreads("BulkFixtures"));
+        }
+        return executor;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    private static final class Progress {
+        private static final long INTERVAL = 5000;
+
+        private final String kind;
+        private final int total;
+        private final long start = System.currentTimeMillis();
+        private final AtomicInteger done = new AtomicInteger();
+        private volatile long reported = start;
+
+        private Progress(String kind, int total) {
+            this.kind = kind;
+            this.total = total;
+        }
+
+        private void done() {
+            done.incrementAndGet();
+            long now = System.currentTimeMillis();
+            if (now - reported >= INTERVAL) {
+                reported = now;
+                LOGGER.info(toString());
+            }
+        }
+
+        @Override
+        public String toString() {
+            long elapsed = Math.max(1, System.currentTimeMillis() - start);
+            return String.format("Created %d/%d %s in %d ms, %.1f per second", done.get(), total, kind, elapsed, done.get() * 1000.0 / elapsed);
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package org.jenkinsci.test.acceptance.po;
+
+import javax.annotation.CheckForNull;
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.http.Header;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.ResponseHandler;
+import org.jenkinsci.test.acceptance.junit.Wait;
+import org.jenkinsci.test.acceptance.utils.ElasticTime;
+import org.openqa.selenium.NoSuchElementException;
+
+/**
+ * Console output of a build read incrementally over HTTP.
+ *
+ * <p>
+ * Every {@link #read()} fetches only the output appended since the previous one from <tt>logText/progressiveText</tt>
+ * and matches its lines against all the patterns of interest as they arrive. The output itself is not kept, apart
+ * from the last few lines to diagnose failures, so waiting for huge logs neither involves the browser nor holds the
+ * whole log in memory.
+ *
+ * <p>
+ * Patterns are matched against every line separately, without the line terminator, so unlike
+ * {@link org.jenkinsci.test.acceptance.Matchers#containsRegexp(String, int)} applied to the whole log they can not
+ * match across lines. Patterns first asked for once the stream has advanced cause the log to be read again from the
+ * beginning so no earlier line is missed.
+ *
+ * <p>
+ * Missing log is reported as not complete yet, any other failure to read it as {@link AssertionError}.
+ *
+ * @see Build#streamConsole()
+ */
+public class ConsoleStream {
+    private static final int TAIL = 50;
+
+    public final Build build;
+
+    private final ApiClient api;
+    private final ElasticTime time;
+
+    private long offset;
+    private boolean complete;
+
+    private final ByteArrayOutputStream partial = new ByteArrayOutputStream();
+    private final Deque<String> tail = new ArrayDeque<>();
+
+    /**
+     * Patterns of interest and the first line they matched, null until matched.
+     */
+    private final Map<Pattern, String> matches = new LinkedHashMap<>();
+
+    public ConsoleStream(Build build) {
+        this.build = build;
+        this.api = build.injector.getInstance(ApiClient.class);
+        this.time = build.injector.getInstance(ElasticTime.class);
+    }
+
+    /**
+     * Start looking for the patterns.
+     */
+    public synchronized ConsoleStream expect(Pattern... patterns) {
+        boolean rewind = false;
+        for (Pattern p : patterns) {
+            if (!matches.containsKey(p)) {
+                matches.put(p, null);
+                rewind |= offset > 0;
+            }
+        }
+        if (rewind) {
+            offset = 0;
+            complete = false;
+            partial.reset();
+            tail.clear();
+        }
+        return this;
+    }
+
+    /**
+     * Read output appended since the last read.
+     *
+     * @return true if the log is complete.
+     */
+    public synchronized boolean read() {
+        if (complete) return true;
+
+        // Lines fed from a response that fails halfway are fed again by the next read, so forget them
+        final byte[] partialBefore = partial.toByteArray();
+        final Deque<String> tailBefore = new ArrayDeque<>(tail);
+        final Map<Pattern, String> matchesBefore = new LinkedHashMap<>(matches);
+
+        URL url = build.url("logText/progressiveText?start=%d", offset);
+        try {
+            api.get(url, new ResponseHandler<Void>() {
+                @Override public Void handleResponse(HttpResponse rsp) throws IOException {
+                    long read = 0;
+                    try (InputStream in = rsp.getEntity().getContent()) {
+                        byte[] buf = new byte[8192];
+                        int len;
+                        while ((len = in.read(buf)) >= 0) {
+                            feed(buf, len);
+                            read += len;
+                        }
+                    }
+
+                    Header size = rsp.getFirstHeader("X-Text-Size");
+                    offset = size != null ? Long.parseLong(size.getValue()) : offset + read;
+                    complete = rsp.getFirstHeader("X-More-Data") == null;
+                    return null;
+                }
+            });
+        } catch (FileNotFoundException e) {
+            // Build not started or log not available yet
+            return false;
+        } catch (IOException e) {
+            partial.reset();
+            partial.write(partialBefore, 0, partialBefore.length);
+            tail.clear();
+            tail.addAll(tailBefore);
+            matches.putAll(matchesBefore);
+            throw new AssertionError("Failed to read console output of " + build, e);
+        }
+
+        if (complete && partial.size() > 0) { // No newline at the end of the log
+            line(partial.toByteArray(), 0, partial.size());
+            partial.reset();
+        }
+        return complete;
+    }
+
+    private void feed(byte[] buf, int len) {
+        int from = 0;
+        for (int i = 0; i < len; i++) {
+            if (buf[i] != '\n') continue;
+
+            if (partial.size() > 0) {
+                partial.write(buf, from, i - from);
+                line(partial.toByteArray(), 0, partial.size());
+                partial.reset();
+            } else {
+                line(buf, from, i - from);
+            }
+            from = i + 1;
+        }
+        // Lines are only decoded once complete so multi-byte characters are never split
+        partial.write(buf, from, len - from);
+    }
+
+    private void line(byte[] buf, int from, int len) {
+        if (len > 0 && buf[from + len - 1] == '\r') len--;
+        String line = new String(buf, from, len, StandardCharsets.UTF_8);
+
+        for (Map.Entry<Pattern, String> e : matches.entrySet()) {
+            if (e.getValue() == null && e.getKey().matcher(line).find()) {
+                e.setValue(line);
+            }
+        }
+
+        tail.addLast(line);
+        if (tail.size() > TAIL) {
+            tail.removeFirst();
+        }
+    }
+
+    /**
+     * First line matching the pattern read so far.
+     *
+     * @return null if not matched yet.
+     */
+    public synchronized @CheckForNull String getMatch(Pattern pattern) {
+        expect(pattern);
+        return matches.get(pattern);
+    }
+
+    /**
+     * Whether the pattern matches some line of the complete log.
+     */
+    public boolean contains(Pattern pattern, int timeout) {
+        expect(pattern);
+        waitUntilFinished(timeout);
+        return getMatch(pattern) != null;
+    }
+
+    /**
+     * Wait until some line matches the pattern.
+     *
+     * @return First matching line.
+     */
+    public String waitFor(final Pattern pattern, int timeout) {
+        expect(pattern);
+        return waitFor(timeout, "Console output of %s matches %s", pattern, new Wait.Predicate<String>() {
+            @Override public String apply() {
+                boolean done = read();
+                String match = getMatch(pattern);
+                if (match == null && done) {
+                    throw new NoSuchElementException("Build " + build + " has finished without printing " + pattern);
+                }
+                return match;
+            }
+
+            @Override public String diagnose(Throwable lastException, String message) {
+                return getTail();
+            }
+        });
+    }
+
+    /**
+     * Wait until the log is complete, meaning the build has finished.
+     */
+    public ConsoleStream waitUntilFinished(int timeout) {
+        waitFor(timeout, "Console output of %s is complete", null, new Wait.Predicate<Boolean>() {
+            @Override public Boolean apply() {
+                return read();
+            }
+
+            @Override public String diagnose(Throwable lastException, String message) {
+                return getTail();
+            }
+        });
+        return this;
+    }
+
+    private <T> T waitFor(int timeout, String message, Pattern pattern, Wait.Predicate<T> predicate) {
+        return new Wait<>(this, time)
+                .pollingEvery(500, TimeUnit.MILLISECONDS)
+                .withTimeout(timeout, TimeUnit.SECONDS)
+                .withMessage(message, build, pattern)
+                .until(predicate)
+        ;
+    }
+
+    /**
+     * Last lines read.
+     */
+    public synchronized String getTail() {
+        StringBuilder sb = new StringBuilder("Last lines of console output:\n");
+        for (String line : tail) {
+            sb.append(line).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Number of bytes read.
+     */
+    public synchronized long getOffset() {
+        return offset;
+    }
+}
@@ -1,15 +1,12 @@
 package org.jenkinsci.test.acceptance.po;
 
 import java.io.IOException;
-import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-import org.apache.commons.lang3.StringUtils;
-import org.jenkinsci.test.acceptance.utils.IOUtil;
 import org.openqa.selenium.By;
 import org.openqa.selenium.NoSuchElementException;
 import org.openqa.selenium.WebElement;
@@ -58,25 +55,18 @@ public abstract class ContainerPageObject extends ConfigurablePageObject {
     public JsonNode getJson(String queryString) {
 
         URL url = getJsonApiUrl();
-        HttpURLConnection con = null;
         try {
             if (queryString != null) {
                 url = new URL(url + "?" + queryString);
             }
 
-            // Pass in all the cookies (in particular the session cookie.)
+            // Authenticated by the browser cookies (in particular the session cookie.)
             // This ensures that the API call sees what the current user sees.
-            con = IOUtil.openConnection(url);
-            con.setRequestProperty("Cookie", StringUtils.join(driver.manage().getCookies(), ";"));
-            return jsonParser.readTree(con.getInputStream());
+            return injector.getInstance(ApiClient.class).getJson(url, getClass());
         } catch (MalformedURLException e) {
             throw new Error(e);
         } catch (IOException e) {
             throw new NoSuchElementException("Failed to read from " + url, e);
-        } finally {
-            if(con != null) {
-                con.disconnect();
-            }
         }
     }
 
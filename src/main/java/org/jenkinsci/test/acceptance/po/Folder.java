@@ -58,6 +58,29 @@ public class Folder extends TopLevelItem implements Container {
         views = new ViewsMixIn(this);
     }
 
+    @Override
+    public String getInitialConfigXml() {
+        return "<?xml version='1.0' encoding='UTF-8'?>\n" +
+                "<com.cloudbees.hudson.plugins.folder.Folder>\n" +
+                "  <properties/>\n" +
+                "  <folderViews class='com.cloudbees.hudson.plugins.folder.views.DefaultFolderViewHolder'>\n" +
+                "    <views>\n" +
+                "      <hudson.model.AllView>\n" +
+                "        <owner class='com.cloudbees.hudson.plugins.folder.Folder' reference='../../../..'/>\n" +
+                "        <name>All</name>\n" +
+                "        <filterExecutors>false</filterExecutors>\n" +
+                "        <filterQueue>false</filterQueue>\n" +
+                "        <properties class='hudson.model.View$PropertyList'/>\n" +
+                "      </hudson.model.AllView>\n" +
+                "    </views>\n" +
+                "    <tabBar class='hudson.views.DefaultViewsTabBar'/>\n" +
+                "  </folderViews>\n" +
+                "  <healthMetrics/>\n" +
+                "  <icon class='com.cloudbees.hudson.plugins.folder.icons.StockFolderIcon'/>\n" +
+                "</com.cloudbees.hudson.plugins.folder.Folder>\n"
+        ;
+    }
+
     @Override
     public JobsMixIn getJobs() {
         return jobs;
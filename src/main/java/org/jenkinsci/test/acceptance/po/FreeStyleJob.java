@@ -12,4 +12,24 @@ public class FreeStyleJob extends Job {
     public FreeStyleJob(Injector injector, URL url, String name) {
         super(injector, url, name);
     }
+
+    @Override
+    public String getInitialConfigXml() {
+        return "<?xml version='1.0' encoding='UTF-8'?>\n" +
+                "<project>\n" +
+                "  <keepDependencies>false</keepDependencies>\n" +
+                "  <properties/>\n" +
+                "  <scm class='hudson.scm.NullSCM'/>\n" +
+                "  <canRoam>true</canRoam>\n" +
+                "  <disabled>false</disabled>\n" +
+                "  <blockBuildWhenDownstreamBuilding>false</blockBuildWhenDownstreamBuilding>\n" +
+                "  <blockBuildWhenUpstreamBuilding>false</blockBuildWhenUpstreamBuilding>\n" +
+                "  <triggers/>\n" +
+                "  <concurrentBuild>false</concurrentBuild>\n" +
+                "  <builders/>\n" +
+                "  <publishers/>\n" +
+                "  <buildWrappers/>\n" +
+                "</project>\n"
+        ;
+    }
 }
@@ -0,0 +1,24 @@
+package org.jenkinsci.test.acceptance.po;
+
+import org.jenkinsci.test.acceptance.guice.TestScope;
+
+/**
+ * How {@link JobsMixIn#create(Class, String)} creates items in the current test.
+ *
+ * @see org.jenkinsci.test.acceptance.junit.CreateItemsViaApi
+ */
+@TestScope
+public class ItemCreation {
+    private boolean viaApi;
+
+    /**
+     * Whether items are created by posting their initial configuration rather than through the New Item page.
+     */
+    public boolean isViaApi() {
+        return viaApi;
+    }
+
+    public void setViaApi(boolean viaApi) {
+        this.viaApi = viaApi;
+    }
+}
@@ -1,9 +1,9 @@
 package org.jenkinsci.test.acceptance.po;
 
+import javax.annotation.CheckForNull;
 import javax.inject.Inject;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -17,17 +17,21 @@ import java.util.NoSuchElementException;
 import java.util.function.Consumer;
 import java.util.zip.GZIPOutputStream;
 
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.SystemUtils;
 import org.codehaus.plexus.util.Base64;
 import org.jenkinsci.test.acceptance.controller.JenkinsController;
 import org.jenkinsci.test.acceptance.controller.LocalController;
+import org.jenkinsci.test.acceptance.controller.WinstoneDockerController;
 import org.jenkinsci.test.acceptance.junit.Resource;
+import org.jenkinsci.test.acceptance.utils.ResourceServer;
 import org.junit.internal.AssumptionViolatedException;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.zeroturnaround.zip.ZipUtil;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.google.inject.Injector;
 
 import static org.hamcrest.CoreMatchers.*;
@@ -220,7 +224,8 @@ public class Job extends TopLevelItem {
      * Adds a shell step that copies a resource inside the test project into a file on the build machine.
      * <p/>
      * Because there's no direct file system access to Jenkins master, we do this by packing file content in
-     * base64 and put it as a heredoc in the shell script.
+     * base64 and put it as a heredoc in the shell script. When the build is known to run on the machine the tests
+     * run on, the build downloads the file from {@link ResourceServer} instead.
      */
     public void copyResource(Resource resource, String fileName) {
         if (SystemUtils.IS_OS_WINDOWS) {
@@ -232,6 +237,13 @@ public class Job extends TopLevelItem {
     }
 
     protected String copyResourceShell(Resource resource, String fileName) {
+        ResourceServer server = resourceServer();
+        String url = server == null ? null : server.url(controller.getUrl().getHost(), resource);
+        if (url != null) {
+            // fileName can include path portion like foo/bar/zot
+            return String.format("(mkdir -p %1$s || true) && rm -r %1$s && %2$s | gunzip > %1$s", fileName, download(url));
+        }
+
         try (InputStream in = resource.asInputStream()) {
             ByteArrayOutputStream out = new ByteArrayOutputStream();
 
@@ -247,6 +259,33 @@ public class Job extends TopLevelItem {
         }
     }
 
+    /**
+     * Server to download resources from, null unless the build is known to run on the machine the tests run on.
+     *
+     * That is the case for Jenkins running locally without any agents, when the job is not tied to a label. Agents
+     * resolve the host of Jenkins to themselves and might not have curl or wget.
+     */
+    protected @CheckForNull ResourceServer resourceServer() {
+        if (!(controller instanceof LocalController) || controller instanceof WinstoneDockerController) return null;
+
+        try {
+            ensureConfigPage();
+            if (hasSlaveAffinity.resolve().isSelected()) return null;
+
+            JsonNode computers = injector.getInstance(ApiClient.class).getJson(
+                    new URL(controller.getUrl(), "computer/api/json?tree=computer[displayName]"), getClass()
+            ).get("computer");
+            if (computers == null || computers.size() != 1) return null; // Agents, or unknown
+        } catch (IOException | org.openqa.selenium.NoSuchElementException e) {
+            return null;
+        }
+        return injector.getInstance(ResourceServer.class);
+    }
+
+    private static String download(String url) {
+        return String.format("(curl -sSf '%1$s' || wget -qO- '%1$s')", url);
+    }
+
     protected String copyResourceBatch(Resource resource, String fileName) {
         String path = resource.url.getPath();
         if (path.startsWith("/")) {
@@ -272,7 +311,6 @@ public class Job extends TopLevelItem {
         try {
             tmp = File.createTempFile("jenkins-acceptance-tests", "dir");
             ZipUtil.pack(file, tmp);
-            byte[] archive = IOUtils.toByteArray(new FileInputStream(tmp));
 
             if (SystemUtils.IS_OS_WINDOWS) {
                 if (!(controller instanceof LocalController)) {
@@ -281,10 +319,17 @@ public class Job extends TopLevelItem {
                 }
                 addBatchStep("xcopy " + file.getAbsolutePath() + " %cd% /E");
             } else {
-                addShellStep(String.format(
-                        "base64 --decode << ENDOFFILE > archive.zip && unzip -o archive.zip \n%s\nENDOFFILE",
-                        new String(Base64.encodeBase64Chunked(archive))
-                ));
+                ResourceServer server = resourceServer();
+                String url = server == null ? null : server.url(controller.getUrl().getHost(), tmp);
+                if (url != null) {
+                    addShellStep(download(url) + " | gunzip > archive.zip && unzip -o archive.zip");
+                } else {
+                    byte[] archive = FileUtils.readFileToByteArray(tmp);
+                    addShellStep(String.format(
+                            "base64 --decode << ENDOFFILE > archive.zip && unzip -o archive.zip \n%s\nENDOFFILE",
+                            new String(Base64.encodeBase64Chunked(archive))
+                    ));
+                }
             }
         } catch (IOException e) {
             throw new AssertionError(e);
@@ -346,7 +391,9 @@ public class Job extends TopLevelItem {
             }
         }
 
-        return build(nb);
+        Build build = build(nb);
+        injector.getInstance(BuildWatcher.class).watch(build);
+        return build;
     }
 
     public Build build(int buildNumber) {
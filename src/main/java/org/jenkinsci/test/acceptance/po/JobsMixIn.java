@@ -1,8 +1,16 @@
 package org.jenkinsci.test.acceptance.po;
 
+import java.io.IOException;
 import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.jenkinsci.test.acceptance.junit.CreateItemsViaApi;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebElement;
 
@@ -21,7 +29,53 @@ public class JobsMixIn extends MixIn {
         return findCaption(type, getFinder());
     }
 
+    /**
+     * Create the item through the New Item page, leaving its configuration page open.
+     *
+     * Tests annotated with {@link CreateItemsViaApi} get the item {@linkplain #createViaApi(Class, String) created
+     * without the UI} instead.
+     */
     public <T extends TopLevelItem> T create(Class<T> type, String name) {
+        if (injector.getInstance(ItemCreation.class).isViaApi()) {
+            return createViaApi(type, name);
+        }
+        return createViaUi(type, name);
+    }
+
+    /**
+     * Create the item from its {@linkplain TopLevelItem#getInitialConfigXml() initial configuration} without the UI.
+     *
+     * Falls back to the New Item page for types with no initial configuration. The configuration page is not opened.
+     */
+    public <T extends TopLevelItem> T createViaApi(Class<T> type, String name) {
+        String xml = get(type, name).getInitialConfigXml();
+        if (xml == null) {
+            return createViaUi(type, name);
+        }
+        return createFromXml(type, name, xml);
+    }
+
+    /**
+     * Create the item from given <tt>config.xml</tt> without the UI.
+     */
+    public <T extends TopLevelItem> T createFromXml(Class<T> type, String name, String configXml) {
+        try {
+            URL createItem = url("createItem?name=%s", URLEncoder.encode(name, "UTF-8"));
+            injector.getInstance(ApiClient.class).post(
+                    getJenkins(), createItem, new StringEntity(configXml, ContentType.create("application/xml", StandardCharsets.UTF_8)), 30,
+                    new ResponseHandler<Void>() {
+                        @Override public Void handleResponse(HttpResponse rsp) {
+                            return null;
+                        }
+                    }
+            );
+        } catch (IOException e) {
+            throw new AssertionError("Failed to create " + name, e);
+        }
+        return get(type, name);
+    }
+
+    private <T extends TopLevelItem> T createViaUi(Class<T> type, String name) {
         visit("newJob");
         fillIn("name", name);
 
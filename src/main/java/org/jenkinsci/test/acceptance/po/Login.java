@@ -33,6 +33,7 @@ public class Login extends PageObject {
         cPassword.set(password);
         // for some reason submit it just bogus...
         cLogin.clickAndWaitToBecomeStale();
+        injector.getInstance(ApiClient.class).resetAuthentication();
         return this;
     }
 
@@ -48,6 +49,7 @@ public class Login extends PageObject {
         // for some reason submit() is bogus
         we.click();
         cUser.waitFor(we).withTimeout(Duration.ofSeconds(30)).until(CapybaraPortingLayerImpl::isStale);
+        injector.getInstance(ApiClient.class).resetAuthentication();
         return this;
     }
 
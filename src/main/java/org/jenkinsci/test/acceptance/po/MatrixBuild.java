@@ -21,6 +21,7 @@ public class MatrixBuild extends Build {
         for (MatrixConfiguration c : getJob().getConfigurations()) {
             builds.add(new MatrixRun(c, this));
         }
+        injector.getInstance(BuildWatcher.class).watch(builds);
         return builds;
     }
 
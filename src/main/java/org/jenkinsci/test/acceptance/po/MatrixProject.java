@@ -26,6 +26,24 @@ public class MatrixProject extends Job {
         super(injector, url, name);
     }
 
+    @Override
+    public String getInitialConfigXml() {
+        return "<?xml version='1.0' encoding='UTF-8'?>\n" +
+                "<matrix-project>\n" +
+                "  <properties/>\n" +
+                "  <scm class='hudson.scm.NullSCM'/>\n" +
+                "  <triggers/>\n" +
+                "  <axes/>\n" +
+                "  <builders/>\n" +
+                "  <publishers/>\n" +
+                "  <buildWrappers/>\n" +
+                "  <executionStrategy class='hudson.matrix.DefaultMatrixExecutionStrategyImpl'>\n" +
+                "    <runSequentially>false</runSequentially>\n" +
+                "  </executionStrategy>\n" +
+                "</matrix-project>\n"
+        ;
+    }
+
     public void addUserAxis(String name, String value) {
         TextAxis a = addAxis(TextAxis.class);
         a.name.set(name);
@@ -24,10 +24,27 @@
 package org.jenkinsci.test.acceptance.po;
 
 import com.google.inject.Injector;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.util.EntityUtils;
 import org.openqa.selenium.NoSuchElementException;
 
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.ConnectException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
 
 /**
  * Common base for Jenkins and Slave.
@@ -35,6 +52,30 @@ import java.util.concurrent.TimeUnit;
  * @author ogondza
  */
 public abstract class Node extends ContainerPageObject {
+    private static final Logger LOGGER = Logger.getLogger(Node.class.getName());
+
+    /**
+     * Evaluate base64 encoded scripts the way script console does, printing separator ahead of the output of each.
+     */
+    private static final String BATCH =
+            "def cc = new org.codehaus.groovy.control.CompilerConfiguration()\n" +
+            "cc.addCompilationCustomizers(new org.codehaus.groovy.control.customizers.ImportCustomizer().addStarImports('jenkins', 'jenkins.model', 'hudson', 'hudson.model'))\n" +
+            "[%s].each { script ->\n" +
+            "    def sw = new StringWriter()\n" +
+            "    def pw = new PrintWriter(sw)\n" +
+            "    def shell = new GroovyShell(this.class.classLoader, new Binding(out: pw), cc)\n" +
+            "    try {\n" +
+            "        def r = shell.evaluate(new String(script.decodeBase64(), 'UTF-8'))\n" +
+            "        if (r != null) pw.println('Result: ' + r)\n" +
+            "    } catch (Throwable t) {\n" +
+            "        t.printStackTrace(pw)\n" +
+            "    }\n" +
+            "    pw.flush()\n" +
+            "    println('%s')\n" +
+            "    print(sw)\n" +
+            "}\n" +
+            "return null\n"
+    ;
     protected Node(Jenkins j, URL url) {
         super(j, url);
     }
@@ -74,6 +115,9 @@ public abstract class Node extends ContainerPageObject {
     /**
      * Run groovy string in groovy console.
      *
+     * The script is submitted to <tt>scriptText</tt> directly, falling back to the console page if Jenkins does not
+     * accept the submission. Once submitted, the script is never run again, so failures past that point are errors.
+     *
      * @param script Script text to run.
      * @param args Arguments to String#format in the script.
      * @param timeoutSeconds Script execution timeout in seconds
@@ -81,9 +125,108 @@ public abstract class Node extends ContainerPageObject {
      * @since TODO
      */
     public String runScript(String script, int timeoutSeconds, Object... args) {
+        String text = String.format(script, args);
+        try {
+            return scriptText(text, timeoutSeconds);
+        } catch (IOException e) {
+            if (!isNotAccepted(e)) throw new AssertionError("Failed to run script through " + url("scriptText"), e);
+
+            LOGGER.log(Level.FINE, "Failed to submit script to " + url("scriptText") + ", using the console page", e);
+            return console(text, timeoutSeconds);
+        }
+    }
+
+    /**
+     * Run groovy string through the script console page in the browser.
+     *
+     * Use for tests of the console itself, {@link #runScript(String, int, Object...)} is faster otherwise.
+     */
+    public String runScriptInConsole(String script, int timeoutSeconds, Object... args) {
+        return console(String.format(script, args), timeoutSeconds);
+    }
+
+    /**
+     * Run several groovy scripts in a single request.
+     *
+     * Scripts are evaluated one after another, each in its own shell so they do not share variables.
+     *
+     * @return String output of every script, in the same order. Null for the scripts with no output.
+     */
+    public List<String> runScripts(List<String> scripts, int timeoutSeconds) {
+        String separator = "----" + UUID.randomUUID() + "----";
+        StringBuilder encoded = new StringBuilder();
+        for (String script : scripts) {
+            if (encoded.length() > 0) encoded.append(", ");
+            encoded.append('\'').append(Base64.getEncoder().encodeToString(script.getBytes(StandardCharsets.UTF_8))).append('\'');
+        }
+
+        String raw;
+        try {
+            raw = submit(String.format(BATCH, encoded, separator), timeoutSeconds);
+        } catch (IOException e) {
+            if (!isNotAccepted(e)) throw new AssertionError("Failed to run scripts through " + url("scriptText"), e);
+
+            LOGGER.log(Level.FINE, "Failed to submit scripts to " + url("scriptText") + ", using the console page", e);
+            List<String> out = new ArrayList<>(scripts.size());
+            for (String script : scripts) {
+                out.add(console(script, timeoutSeconds));
+            }
+            return out;
+        }
+
+        String[] chunks = raw.split(Pattern.quote(separator) + "\r?\n", -1);
+        if (chunks.length != scripts.size() + 1) {
+            throw new AssertionError("Unexpected output of batch script:\n" + raw);
+        }
+        List<String> out = new ArrayList<>(scripts.size());
+        for (int i = 1; i < chunks.length; i++) {
+            out.add(normalize(chunks[i]));
+        }
+        return out;
+    }
+
+    /**
+     * Jenkins has certainly not started running the script, so it is safe to run it some other way.
+     *
+     * That is when the connection could not be established or the submission was refused, not when the response
+     * failed to arrive in time as the script might be running already.
+     */
+    private static boolean isNotAccepted(IOException e) {
+        if (e instanceof ConnectException || e instanceof ConnectTimeoutException) return true;
+        if (e instanceof FileNotFoundException) return true;
+        return e instanceof ApiClient.StatusException && ((ApiClient.StatusException) e).getStatus() == HttpStatus.SC_FORBIDDEN;
+    }
+
+    /**
+     * Run groovy string through <tt>scriptText</tt> only, never touching the browser.
+     */
+    /*package*/ String scriptText(String script, int timeoutSeconds) throws IOException {
+        return normalize(submit(script, timeoutSeconds));
+    }
+
+    private String submit(String script, int timeoutSeconds) throws IOException {
+        return injector.getInstance(ApiClient.class).post(
+                getJenkins(), url("scriptText"), Collections.singletonMap("script", script), timeoutSeconds,
+                new ResponseHandler<String>() {
+                    @Override public String handleResponse(HttpResponse rsp) throws IOException {
+                        return EntityUtils.toString(rsp.getEntity(), StandardCharsets.UTF_8);
+                    }
+                }
+        );
+    }
+
+    /**
+     * Bring the output to the form presented by the console page.
+     */
+    private static String normalize(String output) {
+        output = output.trim();
+        return output.isEmpty() ? null : output.replaceAll("^Result: ", "");
+    }
+
+    private String console(String script, int timeoutSeconds) {
         visit("script");
         CodeMirror cm = new CodeMirror(this, "/script");
-        cm.set(String.format(script, args));
+        cm.set(script);
         clickButton("Run");
 
         waitFor(by.xpath("//h2[text() = 'Result']"), timeoutSeconds);
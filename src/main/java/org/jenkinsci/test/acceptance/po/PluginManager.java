@@ -22,6 +22,7 @@ import org.junit.internal.AssumptionViolatedException;
 import org.openqa.selenium.StaleElementReferenceException;
 import org.openqa.selenium.WebElement;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.google.inject.Inject;
 
 import hudson.util.VersionNumber;
@@ -113,6 +114,19 @@ public class PluginManager extends ContainerPageObject {
 
     public enum InstallationStatus {NOT_INSTALLED, OUTDATED, UP_TO_DATE}
 
+    /**
+     * Versions of all the installed plugins, read with single query.
+     *
+     * @return Versions by plugin name.
+     */
+    public Map<String, VersionNumber> getInstalledVersions() {
+        Map<String, VersionNumber> versions = new HashMap<>();
+        for (JsonNode plugin : getJson("tree=plugins[shortName,version]").get("plugins")) {
+            versions.put(plugin.get("shortName").asText(), new VersionNumber(plugin.get("version").asText()));
+        }
+        return versions;
+    }
+
     public InstallationStatus installationStatus(String spec) {
         return installationStatus(new PluginSpec(spec));
     }
@@ -1,5 +1,6 @@
 package org.jenkinsci.test.acceptance.po;
 
+import javax.annotation.CheckForNull;
 import javax.annotation.CheckReturnValue;
 import java.net.MalformedURLException;
 import java.net.URL;
@@ -36,6 +37,18 @@ public abstract class TopLevelItem extends ContainerPageObject {
         this.name = name;
     }
 
+    /**
+     * Configuration of new item of this type, used to create it without the UI.
+     *
+     * Types override this with the configuration the New Item page would save, verified to load in Jenkins.
+     *
+     * @return null if the item can only be created through the UI.
+     * @see JobsMixIn#createViaApi(Class, String)
+     */
+    public @CheckForNull String getInitialConfigXml() {
+        return null;
+    }
+
     /**
      * Renames the job. Opens the configuration section, sets the name and saves the form. Finally the rename is
      * confirmed.
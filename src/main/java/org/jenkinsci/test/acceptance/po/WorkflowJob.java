@@ -29,6 +29,7 @@ import java.net.URL;
 import java.util.concurrent.TimeUnit;
 
 import org.jenkinsci.test.acceptance.junit.Resource;
+import org.jenkinsci.test.acceptance.utils.ResourceServer;
 import org.openqa.selenium.By;
 import org.openqa.selenium.NoSuchElementException;
 import org.openqa.selenium.TimeoutException;
@@ -102,6 +103,14 @@ public class WorkflowJob extends Job {
         return String.format("sh '''%s'''%n", copyResourceShell(res, res.getName()));
     }
 
+    /**
+     * The script decides where the steps run, so the resources are always embedded.
+     */
+    @Override
+    protected ResourceServer resourceServer() {
+        return null;
+    }
+
     public void delete() {
         open();
         runThenConfirmAlert(() -> clickLink("Delete Pipeline"),2);
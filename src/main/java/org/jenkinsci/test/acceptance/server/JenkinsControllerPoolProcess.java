@@ -12,25 +12,40 @@ import org.jenkinsci.test.acceptance.FallbackConfig;
 import org.jenkinsci.test.acceptance.controller.IJenkinsController;
 import org.jenkinsci.test.acceptance.controller.JenkinsController;
 import org.jenkinsci.test.acceptance.controller.JenkinsControllerFactory;
+import org.jenkinsci.test.acceptance.controller.JenkinsHomeReaper;
+import org.jenkinsci.test.acceptance.controller.JenkinsHomeSnapshots;
+import org.jenkinsci.test.acceptance.controller.PluginPreProvisioner;
 import org.jenkinsci.test.acceptance.guice.TestCleaner;
 import org.jenkinsci.test.acceptance.guice.TestLifecycle;
 import org.jenkinsci.test.acceptance.guice.World;
+import org.jenkinsci.test.acceptance.update_center.PluginSpec;
 import org.kohsuke.args4j.CmdLineException;
 import org.kohsuke.args4j.CmdLineParser;
 import org.kohsuke.args4j.Option;
 
 import javax.inject.Inject;
 import javax.inject.Named;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingDeque;
-import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Pre-launch {@link JenkinsController} so that tests can use them without waiting.
@@ -40,6 +55,14 @@ import java.util.concurrent.SynchronousQueue;
  * During development of tests, a test VM would come and go quickly. This design helps them maintain efficiency
  * in such a situation.
  *
+ * <p>
+ * Instances are pooled per key, the set of plugins the test requires. Client sends the key as the first line
+ * of the connection and gets an instance from the pool of that key, prepared for the plugins where the controller
+ * can do that before boot (see {@link JenkinsController#requirePlugins(Collection)}). The pool of instances without
+ * plugins is prelaunched eagerly, the others as soon as requested for the first time. Unless there is a way to
+ * prepare the plugins, that is JENKINS_HOME snapshots or pre-provisioning, all the instances come from single pool
+ * as they would be identical.
+ *
  * @see docs/PRELAUNCH.md
  * @author Kohsuke Kawaguchi
  */
@@ -53,16 +76,42 @@ public class JenkinsControllerPoolProcess {
     @Inject
     TestLifecycle lifecycle;
 
-    private BlockingQueue<QueueItem> queue;
+    @Inject
+    JenkinsHomeSnapshots snapshots;
+
+    @Inject
+    PluginPreProvisioner preProvisioner;
 
-    @Option(name="-n",usage="Number of instances to pool. >=1.")
+    @Option(name="-n",usage="Number of instances to pool per key. >=1.")
     public int n = Integer.getInteger("count",1);
 
+    @Option(name="-c",usage="Number of instances to boot concurrently. >=1.")
+    public int concurrency = Integer.getInteger("concurrency",1);
+
+    @Option(name="-k",usage="Number of keys to keep instances pooled for. Least recently used pool is discarded. >=1.")
+    public int keys = Integer.getInteger("keys",4);
+
     @Inject @Named("socket")
     public File socket;
 
     private final ExecutorService executors = Executors.newCachedThreadPool();
 
+    private ExecutorService bootExecutor;
+
+    /**
+     * Stops and tears down instances that were used, so that does not delay handing out the next one.
+     *
+     * Bounded so the instances can not pile up, the connection thread does the work itself once the queue is full.
+     */
+    private final ThreadPoolExecutor reaper = new ThreadPoolExecutor(
+            2, 2, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(16), new ThreadPoolExecutor.CallerRunsPolicy()
+    );
+
+    /**
+     * Pools by their key, in access order.
+     */
+    private final LinkedHashMap<String, Pool> pools = new LinkedHashMap<>(16, 0.75f, true);
+
     public static void main(String[] args) throws Exception {
         MAIN = true;
         JenkinsControllerPoolProcess proc = new JenkinsControllerPoolProcess();
@@ -78,41 +127,45 @@ public class JenkinsControllerPoolProcess {
     }
 
     public void run() throws Exception {
-        // there's always one process that's waiting to be in the queue,
-        // so the actual length of the queue has to be n-1.
-        if (n==1)
-            queue = new SynchronousQueue<>();
-        else
-            queue = new LinkedBlockingDeque<>(n-1);
-
         World w = World.get();
         w.getInjector().injectMembers(this);
 
-        new Thread() {
-            /**
-             * Just keeps on creating new controllers and put it into the queue.
-             * Because queue is blocking, this will only prelaunch up to 3.
-             */
-            @Override
-            public void run() {
-                try {
-                    FallbackConfig f = new FallbackConfig();
-                    while (true) {
-                        lifecycle.startTestScope();
-                        JenkinsController c = f.createController(injector,factories);
-                        c.start();
-                        queue.put(new QueueItem(c,lifecycle.export()));
+        bootExecutor = Executors.newFixedThreadPool(Math.max(1, concurrency));
+
+        // Start booting the instances without additional plugins right away
+        pool("");
+
+        processServerSocket();
+    }
+
+    /**
+     * Get the pool for given key, creating it if needed.
+     */
+    private Pool pool(String key) {
+        List<Pool> retired = new ArrayList<>();
+        Pool pool;
+        synchronized (pools) {
+            pool = pools.get(key);
+            if (pool == null) {
+                pool = new Pool(key);
+                pools.put(key, pool);
+
+                Iterator<Pool> it = pools.values().iterator();
+                while (pools.size() > Math.max(1, keys) && it.hasNext()) {
+                    Pool lru = it.next();
+                    if (lru != pool) {
+                        it.remove();
+                        retired.add(lru);
                     }
-                } catch (Throwable e) {
-                    // fail fatally
-                    e.printStackTrace();
-                    System.exit(1);
                 }
             }
-        }.start();
-
-        processServerSocket();
+        }
 
+        for (Pool p : retired) {
+            p.retire();
+        }
+        pool.replenish();
+        return pool;
     }
 
     /**
@@ -131,21 +184,31 @@ public class JenkinsControllerPoolProcess {
             while (true) {
                 final UnixSocketChannel c = channel.accept();
                 System.out.println("Accepted");
-                final QueueItem qi = queue.take();
-                final JenkinsController j = qi.controller;
-                System.out.println("Handed out "+j.getUrl());
 
                 new Thread("Connection handling thread") {
                     @Override
                     public void run() {
+                        QueueItem qi;
+                        try {
+                            String key = poolKey(readKey(c));
+                            qi = pool(key).take();
+                            System.out.println("Handed out " + qi.controller.getUrl() + " for '" + key + "' (" + reaperStatus() + ")");
+                        } catch (IOException | InterruptedException e) {
+                            e.printStackTrace();
+                            try {
+                                c.close();
+                            } catch (IOException x) {
+                                // ignore
+                            }
+                            return;
+                        }
+
                         lifecycle.import_(qi.testScope);
                         try {
-                            processConnection(c, j);
+                            processConnection(c, qi.controller);
                         } finally {
-                            TestCleaner scope = injector.getInstance(TestCleaner.class);
-                            if (scope!=null)
-                                scope.performCleanUp();
                             lifecycle.endTestScope();
+                            recycle(qi);
                         }
                     }
                 }.start();
@@ -153,6 +216,57 @@ public class JenkinsControllerPoolProcess {
         }
     }
 
+    /**
+     * Stop the instance and clean up after it in the background.
+     */
+    private void recycle(final QueueItem qi) {
+        reaper.execute(new Runnable() {
+            @Override public void run() {
+                lifecycle.import_(qi.testScope);
+                try {
+                    qi.controller.stop();
+                    qi.controller.tearDown();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                } finally {
+                    TestCleaner scope = injector.getInstance(TestCleaner.class);
+                    if (scope!=null)
+                        scope.performCleanUp();
+                    lifecycle.endTestScope();
+                }
+            }
+        });
+    }
+
+    /**
+     * Describe the backlog of the instances being recycled.
+     */
+    private String reaperStatus() {
+        return String.format("%d instances being recycled, %s",
+                reaper.getActiveCount() + reaper.getQueue().size(), injector.getInstance(JenkinsHomeReaper.class)
+        );
+    }
+
+    /**
+     * Read the pool key sent by {@link PooledJenkinsController} as the first line.
+     *
+     * Read byte by byte not to consume anything that belongs to the remoting channel established afterwards.
+     */
+    private static String readKey(UnixSocketChannel c) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        ByteBuffer b = ByteBuffer.allocate(1);
+        while (true) {
+            b.clear();
+            if (c.read(b) < 0) throw new EOFException("Connection closed before the key was sent");
+            if (b.position() == 0) continue;
+
+            byte read = b.get(0);
+            if (read == '\n') break;
+            line.write(read);
+        }
+        return new String(line.toByteArray(), StandardCharsets.UTF_8);
+    }
+
     /**
      * Serve individual connection to the test harness.
      */
@@ -171,8 +285,6 @@ public class JenkinsControllerPoolProcess {
                 }
             } finally {
                 System.out.println("done");
-                j.stop();
-                j.tearDown();
                 c.close();
             }
         } catch (IOException|InterruptedException e) {
@@ -180,11 +292,127 @@ public class JenkinsControllerPoolProcess {
         }
     }
 
+    /**
+     * Key of the pool to serve the requested key from.
+     */
+    private String poolKey(String requested) {
+        return snapshots.isEnabled() || preProvisioner.isEnabled() ? requested : "";
+    }
+
+    /**
+     * Key identifying instances prepared for given plugins.
+     */
+    /*package*/ static String keyOf(Collection<PluginSpec> plugins) {
+        List<String> specs = new ArrayList<>();
+        for (PluginSpec spec : plugins) {
+            specs.add(spec.toString());
+        }
+        Collections.sort(specs);
+        StringBuilder sb = new StringBuilder();
+        for (String spec : specs) {
+            if (sb.length() > 0) sb.append(',');
+            sb.append(spec);
+        }
+        return sb.toString();
+    }
+
+    /*package*/ static List<PluginSpec> pluginsOf(String key) {
+        List<PluginSpec> plugins = new ArrayList<>();
+        for (String spec : key.split(",")) {
+            if (!spec.isEmpty()) {
+                plugins.add(new PluginSpec(spec));
+            }
+        }
+        return plugins;
+    }
+
     /**
      * Are we running the JUT server?
      */
     public static boolean MAIN = false;
 
+    /**
+     * Instances ready to be handed out for one key.
+     */
+    private final class Pool {
+        private final String key;
+        private final BlockingQueue<QueueItem> ready = new LinkedBlockingQueue<>();
+        private int booting;
+        private boolean retired;
+
+        Pool(String key) {
+            this.key = key;
+        }
+
+        QueueItem take() throws InterruptedException {
+            while (true) {
+                QueueItem qi = ready.poll(1, TimeUnit.SECONDS);
+                if (qi != null) {
+                    replenish();
+                    return qi;
+                }
+                synchronized (this) {
+                    if (retired) break;
+                }
+            }
+            // Discarded while waiting, start over
+            return pool(key).take();
+        }
+
+        /**
+         * Schedule boots so there are n instances ready or booting.
+         */
+        synchronized void replenish() {
+            while (!retired && ready.size() + booting < n) {
+                booting++;
+                bootExecutor.submit(new Runnable() {
+                    @Override public void run() {
+                        boot();
+                    }
+                });
+            }
+        }
+
+        private void boot() {
+            try {
+                FallbackConfig f = new FallbackConfig();
+                lifecycle.startTestScope();
+                JenkinsController c = f.createController(injector,factories);
+                c.requirePlugins(pluginsOf(key));
+                c.start();
+                QueueItem qi = new QueueItem(c, lifecycle.export());
+                synchronized (this) {
+                    booting--;
+                    if (!retired) {
+                        ready.add(qi);
+                        return;
+                    }
+                }
+                recycle(qi);
+            } catch (Throwable e) {
+                // fail fatally
+                e.printStackTrace();
+                System.exit(1);
+            }
+        }
+
+        /**
+         * Stop pooling for this key, discarding instances that are ready.
+         */
+        void retire() {
+            List<QueueItem> discarded = new ArrayList<>();
+            synchronized (this) {
+                retired = true;
+                ready.drainTo(discarded);
+            }
+            System.out.println("Discarding pool for '" + key + "'");
+            for (QueueItem qi : discarded) {
+                recycle(qi);
+            }
+        }
+
+    }
+
     static class QueueItem {
         final JenkinsController controller;
         final Map testScope;
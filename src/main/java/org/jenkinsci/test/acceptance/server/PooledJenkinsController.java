@@ -4,6 +4,9 @@ import javax.inject.Inject;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.Executors;
@@ -15,6 +18,7 @@ import org.jenkinsci.test.acceptance.controller.LocalController.LocalFactoryImpl
 import org.jenkinsci.test.acceptance.log.LogListenable;
 import org.jenkinsci.test.acceptance.log.LogListener;
 import org.jenkinsci.test.acceptance.log.LogSplitter;
+import org.jenkinsci.test.acceptance.update_center.PluginSpec;
 
 import com.cloudbees.sdk.extensibility.Extension;
 import com.google.inject.Injector;
@@ -40,6 +44,10 @@ public class PooledJenkinsController extends JenkinsController implements LogLis
     private Channel channel;
     private IJenkinsController controller;
     private final List<byte[]> toUnpack = new LinkedList<>();
+    /**
+     * Key of the pool to take the instance from.
+     */
+    private String key = "";
 
     public PooledJenkinsController(Injector i, File socket) {
         super(i);
@@ -63,6 +71,11 @@ public class PooledJenkinsController extends JenkinsController implements LogLis
         UnixSocketAddress address = new UnixSocketAddress(socket);
         conn = UnixSocketChannel.open(address);
 
+        ByteBuffer handshake = ByteBuffer.wrap((key + "\n").getBytes(StandardCharsets.UTF_8));
+        while (handshake.hasRemaining()) {
+            conn.write(handshake);
+        }
+
         channel = new ChannelBuilder("JenkinsPool", Executors.newCachedThreadPool())
                 .withMode(Mode.BINARY)
                 .build(ChannelStream.in(conn), ChannelStream.out(conn));
@@ -90,6 +103,21 @@ public class PooledJenkinsController extends JenkinsController implements LogLis
         return true;
     }
 
+    @Override
+    public void requirePlugins(Collection<PluginSpec> plugins) {
+        key = JenkinsControllerPoolProcess.keyOf(plugins);
+    }
+
+    /**
+     * The instance was prepared by the pool process, so it is the one to remember the plugins.
+     */
+    @Override
+    public void pluginsInstalled() throws IOException {
+        if (controller != null) {
+            controller.pluginsInstalled();
+        }
+    }
+
     @Override
     public void startNow() throws IOException {
         connect();
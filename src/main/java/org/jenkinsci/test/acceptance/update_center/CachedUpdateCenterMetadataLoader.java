@@ -2,6 +2,7 @@ package org.jenkinsci.test.acceptance.update_center;
 
 import com.cloudbees.sdk.extensibility.ExtensionList;
 import com.google.inject.Inject;
+import hudson.util.VersionNumber;
 import org.apache.commons.io.FileUtils;
 import org.jenkinsci.test.acceptance.po.Jenkins;
 
@@ -9,8 +10,12 @@ import javax.inject.Named;
 import javax.inject.Singleton;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
 import java.net.URL;
-import java.util.concurrent.TimeUnit;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 
 /**
  * Parses update-center.json.html possibly from a cache and determine plugins to install.
@@ -32,17 +37,20 @@ public class CachedUpdateCenterMetadataLoader implements UpdateCenterMetadataPro
 
     @Override
     public UpdateCenterMetadata get(Jenkins jenkins) throws IOException {
+        return get(jenkins.getVersion());
+    }
+
+    @Override
+    public boolean canLoadWithoutJenkins() {
+        return true;
+    }
+
+    @Override
+    public UpdateCenterMetadata get(VersionNumber jenkinsVersion) throws IOException {
         if (metadata==null) {
-            String version = jenkins.getVersion().toString();
+            String version = jenkinsVersion.toString();
             File cache = new File(cacheBase + "-" + version + ".jsonp");
-            if (!cache.exists() || System.currentTimeMillis()-cache.lastModified() > TimeUnit.DAYS.toMillis(1)) {
-                // load cache
-                URL versionedUrl = new URL(url + "?version=" + version);
-                System.err.println("Downloading " + versionedUrl + " to " + cache);
-                FileUtils.copyURLToFile(versionedUrl, cache);
-            } else {
-                System.err.println("Using cached " + cache);
-            }
+            download(new URL(url + "?version=" + version), cache);
             metadata = UpdateCenterMetadata.parse(cache);
             for (UpdateCenterMetadataDecorator decorator : decorators) {
                 decorator.decorate(metadata);
@@ -50,4 +58,42 @@ public class CachedUpdateCenterMetadataLoader implements UpdateCenterMetadataPro
         }
         return metadata;
     }
+
+    /**
+     * Download the file unless the cached copy is up to date.
+     *
+     * The cache is replaced atomically, never rewritten, as the metadata maps the file it was parsed from.
+     */
+    private static void download(URL url, File cache) throws IOException {
+        URLConnection uc = url.openConnection();
+        if (cache.exists()) {
+            uc.setIfModifiedSince(cache.lastModified());
+        }
+        try {
+            if (uc instanceof HttpURLConnection && ((HttpURLConnection) uc).getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                System.err.println("Using cached " + cache);
+                return;
+            }
+            System.err.println("Downloading " + url + " to " + cache);
+            File tmp = new File(cache.getPath() + ".tmp" + System.nanoTime());
+            try {
+                try (InputStream in = uc.getInputStream()) {
+                    FileUtils.copyInputStreamToFile(in, tmp);
+                }
+                if (uc.getLastModified() > 0) {
+                    tmp.setLastModified(uc.getLastModified());
+                }
+                Files.move(tmp.toPath(), cache.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp.toPath());
+            }
+        } catch (IOException e) {
+            if (!cache.exists()) throw e;
+            System.err.println("Failed to check " + url + " for updates, using cached " + cache + ": " + e);
+        } finally {
+            if (uc instanceof HttpURLConnection) {
+                ((HttpURLConnection) uc).disconnect();
+            }
+        }
+    }
 }
@@ -0,0 +1,164 @@
+package org.jenkinsci.test.acceptance.update_center;
+
+import javax.annotation.CheckForNull;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jenkinsci.test.acceptance.update_center.UpdateCenterMetadata.UnableToResolveDependencies;
+import org.junit.internal.AssumptionViolatedException;
+
+import hudson.util.VersionNumber;
+
+/**
+ * Required dependencies among the plugins of {@link UpdateCenterMetadata}, to plan installation of plugin sets.
+ *
+ * <p>
+ * The graph is built once from the metadata. Dependency closures of requested plugin sets are computed once in
+ * topological order and memoized, so planning the installation only filters the closure by what is installed
+ * already and by what the Jenkins version permits.
+ */
+final class DependencyGraph {
+
+    /**
+     * Plugin metadata by name, as of the time the graph was built.
+     */
+    private final Map<String, PluginMetadata> plugins;
+
+    /**
+     * Required (not optional) dependencies by plugin name.
+     */
+    private final Map<String, List<Dependency>> required = new HashMap<>();
+
+    /**
+     * Plugins in topological order, dependencies first, by the requested plugin names.
+     */
+    private final Map<Set<String>, List<String>> closures = new ConcurrentHashMap<>();
+
+    DependencyGraph(Map<String, PluginMetadata> plugins) {
+        this.plugins = new HashMap<>(plugins);
+        for (PluginMetadata p : this.plugins.values()) {
+            List<Dependency> deps = new ArrayList<>();
+            for (Dependency d : p.getDependencies()) {
+                if (!d.optional) {
+                    deps.add(d);
+                }
+            }
+            required.put(p.getName(), deps);
+        }
+    }
+
+    /**
+     * Plan installation of the plugins.
+     *
+     * Dependencies satisfied by installed plugins are left out along with their own dependencies. When the plugin
+     * is required in several versions, the newest is used. The latest version is planned unless it requires newer
+     * Jenkins, in which case the required version is planned instead.
+     *
+     * @param core Version of Jenkins the plugins are to be installed to.
+     * @param installed Versions of plugins installed already, by their name.
+     * @return Plugins in the order of installation.
+     * @throws UnableToResolveDependencies When the requested plugins can not be installed.
+     */
+    List<PluginMetadata> plan(VersionNumber core, Map<String, VersionNumber> installed, Collection<PluginSpec> specs) {
+        Map<String, String> versions = new HashMap<>();
+        for (PluginSpec n : specs) {
+            PluginMetadata p = plugins.get(n.getName());
+            if (p==null) {
+                // The plugin explicitly requested is not available in the configured update center
+                // Skipping the test since it can happen for both upstream and downstream update centers
+                throw new AssumptionViolatedException("No such plugin " + n.getName());
+            }
+            if (p.requiredCore().isNewerThan(core)) {
+                throw new UnableToResolveDependencies(String.format(
+                        "Unable to install %s plugin because of core dependency. Required: %s Used: %s",
+                        p, p.requiredCore(), core
+                ));
+            }
+            versions.put(n.getName(), newer(versions.get(n.getName()), n.getVersion()));
+        }
+
+        List<String> closure = closure(versions.keySet());
+
+        // Dependents come before their dependencies in reverse order, so every plugin knows all its required versions
+        for (int i = closure.size() - 1; i >= 0; i--) {
+            String name = closure.get(i);
+            if (!versions.containsKey(name)) continue; // Not needed
+
+            for (Dependency d : required.get(name)) {
+                VersionNumber present = installed.get(d.name);
+                if (present != null && !present.isOlderThan(new VersionNumber(d.version))) continue;
+
+                if (!plugins.containsKey(d.name)) {
+                    throw new UnableToResolveDependencies(
+                            String.format("Unable to install dependency '%s' for '%s': plugin not found", d, plugins.get(name))
+                    );
+                }
+                versions.put(d.name, newer(versions.get(d.name), d.version));
+            }
+        }
+
+        List<PluginMetadata> plan = new ArrayList<>();
+        for (String name : closure) {
+            if (!versions.containsKey(name)) continue;
+
+            PluginMetadata p = plugins.get(name);
+            String version = versions.get(name);
+            if (p.requiredCore().isNewerThan(core) && version != null) {
+                // If latest version is too new for current Jenkins, use the declared one
+                plan.add(p.withVersion(version));
+            } else {
+                plan.add(p);
+            }
+        }
+        return plan;
+    }
+
+    private static @CheckForNull String newer(@CheckForNull String a, @CheckForNull String b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return new VersionNumber(a).isOlderThan(new VersionNumber(b)) ? b : a;
+    }
+
+    /**
+     * All the plugins the requested ones depend on, in topological order.
+     */
+    private List<String> closure(Set<String> requested) {
+        Set<String> key = Collections.unmodifiableSet(new HashSet<>(requested));
+        List<String> closure = closures.get(key);
+        if (closure == null) {
+            List<String> order = new ArrayList<>();
+            Set<String> visited = new HashSet<>();
+            for (String name : sorted(requested)) { // Same order no matter the order requested
+                visit(name, visited, order);
+            }
+            closure = Collections.unmodifiableList(order);
+            closures.put(key, closure);
+        }
+        return closure;
+    }
+
+    private static List<String> sorted(Set<String> names) {
+        List<String> sorted = new ArrayList<>(names);
+        Collections.sort(sorted);
+        return sorted;
+    }
+
+    private void visit(String name, Set<String> visited, List<String> order) {
+        if (!visited.add(name)) return; // Visited already, or a dependency cycle
+
+        List<Dependency> deps = required.get(name);
+        if (deps == null) return; // Missing, reported once needed
+
+        for (Dependency d : deps) {
+            visit(d.name, visited, order);
+        }
+        order.add(name);
+    }
+}
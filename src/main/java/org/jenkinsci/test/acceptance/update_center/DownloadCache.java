@@ -0,0 +1,256 @@
+package org.jenkinsci.test.acceptance.update_center;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.io.IOUtils;
+
+import static org.apache.commons.codec.digest.DigestUtils.sha1Hex;
+
+/**
+ * On-disk cache of the files {@link MockUpdateCenter} proxies from the upstream update center, like tool installer
+ * metadata.
+ *
+ * <p>
+ * Downloads are stored under the hash of their content and indexed by URL, so they are shared by all tests and all
+ * JVMs using the same directory. Fresh entries are served without contacting the upstream, stale ones are revalidated
+ * with a conditional request and served even when the upstream can not be reached. Least recently used content is
+ * evicted once the cache grows over its size limit.
+ *
+ * <p>
+ * Configured by system properties prefixed with <tt>org.jenkinsci.test.acceptance.update_center.DownloadCache</tt>:
+ * <tt>.dir</tt> (<tt>update-center-downloads</tt> in the temporary directory by default), <tt>.maxSize</tt> in
+ * megabytes (1024 by default) and <tt>.freshHours</tt> (24 by default).
+ */
+@Singleton
+public class DownloadCache {
+    private static final Logger LOGGER = Logger.getLogger(DownloadCache.class.getName());
+
+    private final File index;
+    private final File blobs;
+    private final long maxSize;
+    private final long fresh;
+
+    @Inject
+    public DownloadCache() {
+        this(
+                new File(System.getProperty(DownloadCache.class.getName() + ".dir", new File(System.getProperty("java.io.tmpdir"), "update-center-downloads").getPath())),
+                Long.getLong(DownloadCache.class.getName() + ".maxSize", 1024) * 1024 * 1024,
+                TimeUnit.HOURS.toMillis(Long.getLong(DownloadCache.class.getName() + ".freshHours", 24))
+        );
+    }
+
+    @VisibleForTesting DownloadCache(@Nonnull File dir, long maxSize, long fresh) {
+        this.index = new File(dir, "index");
+        this.blobs = new File(dir, "blobs");
+        this.maxSize = maxSize;
+        this.fresh = fresh;
+    }
+
+    /**
+     * Get the content of the URL, downloading it unless cached.
+     *
+     * @throws IOException If the content is not cached and can not be downloaded.
+     */
+    public @Nonnull Entry get(@Nonnull URL url) throws IOException {
+        File indexFile = new File(index, sha1Hex(url.toExternalForm()) + ".properties");
+        Properties cached = read(indexFile);
+        if (cached != null && System.currentTimeMillis() - Long.parseLong(cached.getProperty("fetched")) < fresh) {
+            return hit(cached);
+        }
+
+        try {
+            HttpURLConnection uc = (HttpURLConnection) url.openConnection();
+            uc.setInstanceFollowRedirects(true);
+            if (cached != null) {
+                if (cached.getProperty("etag") != null) {
+                    uc.setRequestProperty("If-None-Match", cached.getProperty("etag"));
+                }
+                if (cached.getProperty("lastModified") != null) {
+                    uc.setRequestProperty("If-Modified-Since", cached.getProperty("lastModified"));
+                }
+            }
+
+            int code = uc.getResponseCode();
+            if (code == HttpURLConnection.HTTP_NOT_MODIFIED && cached != null) {
+                uc.disconnect();
+                cached.setProperty("fetched", String.valueOf(System.currentTimeMillis()));
+                write(indexFile, cached);
+                LOGGER.fine(() -> "Revalidated " + url);
+                return hit(cached);
+            }
+            if (code != HttpURLConnection.HTTP_OK) {
+                uc.disconnect();
+                throw new IOException("Server returned HTTP response code: " + code + " for URL: " + url);
+            }
+
+            Properties entry = new Properties();
+            entry.setProperty("url", url.toExternalForm());
+            entry.setProperty("fetched", String.valueOf(System.currentTimeMillis()));
+            entry.setProperty("blob", store(uc));
+            setIfPresent(entry, "contentType", uc.getContentType());
+            setIfPresent(entry, "etag", uc.getHeaderField("ETag"));
+            setIfPresent(entry, "lastModified", uc.getHeaderField("Last-Modified"));
+            write(indexFile, entry);
+            LOGGER.fine(() -> "Downloaded " + url);
+            Entry hit = hit(entry);
+            evict(hit.file);
+            return hit;
+        } catch (IOException e) {
+            if (cached == null) throw e;
+
+            LOGGER.log(Level.WARNING, "Failed to revalidate " + url + ", serving cached content", e);
+            return hit(cached);
+        }
+    }
+
+    /**
+     * Stream the response to a blob named by the hash of its content.
+     */
+    private String store(HttpURLConnection uc) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError(e);
+        }
+
+        Files.createDirectories(blobs.toPath());
+        File tmp = File.createTempFile("download", ".tmp", blobs);
+        try {
+            try (InputStream in = new DigestInputStream(uc.getInputStream(), digest); OutputStream out = new FileOutputStream(tmp)) {
+                IOUtils.copy(in, out);
+            }
+            String hash = Hex.encodeHexString(digest.digest());
+            move(tmp, new File(blobs, hash));
+            return hash;
+        } finally {
+            Files.deleteIfExists(tmp.toPath());
+        }
+    }
+
+    private @CheckForNull Properties read(File indexFile) {
+        if (!indexFile.isFile()) return null;
+
+        Properties entry = new Properties();
+        try (InputStream in = new FileInputStream(indexFile)) {
+            entry.load(in);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to read " + indexFile, e);
+            return null;
+        }
+        if (entry.getProperty("fetched") == null || entry.getProperty("blob") == null) return null;
+        if (!new File(blobs, entry.getProperty("blob")).isFile()) return null; // Evicted
+
+        return entry;
+    }
+
+    private void write(File indexFile, Properties entry) throws IOException {
+        Files.createDirectories(index.toPath());
+        File tmp = File.createTempFile("index", ".tmp", index);
+        try {
+            try (OutputStream out = new FileOutputStream(tmp)) {
+                entry.store(out, null);
+            }
+            move(tmp, indexFile);
+        } finally {
+            Files.deleteIfExists(tmp.toPath());
+        }
+    }
+
+    private static void move(File from, File to) throws IOException {
+        try {
+            Files.move(from.toPath(), to.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(from.toPath(), to.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void setIfPresent(Properties entry, String key, @CheckForNull String value) {
+        if (value != null) {
+            entry.setProperty(key, value);
+        }
+    }
+
+    private Entry hit(Properties entry) {
+        File blob = new File(blobs, entry.getProperty("blob"));
+        blob.setLastModified(System.currentTimeMillis()); // Recently used
+        return new Entry(blob, entry.getProperty("contentType"));
+    }
+
+    /**
+     * Delete least recently used blobs over the size limit.
+     *
+     * @param keep Blob that is about to be served.
+     */
+    private synchronized void evict(File keep) {
+        File[] files = blobs.listFiles((File f) -> !f.getName().endsWith(".tmp")); // Not downloads in progress
+        if (files == null) return;
+
+        long size = 0;
+        final Map<File, Long> used = new HashMap<>();
+        for (File f : files) {
+            size += f.length();
+            used.put(f, f.lastModified());
+        }
+        if (size <= maxSize) return;
+
+        Arrays.sort(files, Comparator.comparing(used::get));
+        for (File f : files) {
+            if (size <= maxSize) break;
+            if (f.equals(keep)) continue;
+
+            long length = f.length();
+            if (f.delete()) {
+                size -= length;
+                LOGGER.fine(() -> "Evicted " + f.getName());
+            }
+        }
+    }
+
+    /**
+     * Cached content.
+     */
+    public static final class Entry {
+        /**
+         * File with the content, to be streamed from.
+         */
+        public final @Nonnull File file;
+
+        /**
+         * Content type reported by the upstream, if any.
+         */
+        public final @CheckForNull String contentType;
+
+        private Entry(@Nonnull File file, @CheckForNull String contentType) {
+            this.file = file;
+            this.contentType = contentType;
+        }
+    }
+}
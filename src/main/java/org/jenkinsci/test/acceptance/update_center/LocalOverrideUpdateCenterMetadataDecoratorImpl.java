@@ -5,12 +5,11 @@ import org.eclipse.aether.artifact.DefaultArtifact;
 import org.eclipse.aether.util.version.GenericVersionScheme;
 import org.eclipse.aether.version.Version;
 import org.eclipse.aether.version.VersionScheme;
-import org.w3c.dom.NodeList;
 
-import javax.xml.parsers.DocumentBuilderFactory;
 import java.io.File;
-import java.util.Iterator;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Allow local plugins specified via environment variables to override plugin metadata from update center.
@@ -27,34 +26,37 @@ public class LocalOverrideUpdateCenterMetadataDecoratorImpl implements UpdateCen
             File userHome = new File(System.getProperty("user.home"));
             File localRepo = new File(new File(userHome, ".m2"), "repository");
             VersionScheme versionScheme = new GenericVersionScheme();
-            for (Iterator<Map.Entry<String, PluginMetadata>> it = ucm.plugins.entrySet().iterator(); it.hasNext();) {
-                Map.Entry<String,PluginMetadata> entry = it.next();
+            Set<String> coordinates = new HashSet<>();
+            for (PluginMetadata p : ucm.plugins.values()) {
+                DefaultArtifact artifact = p.getDefaultArtifact();
+                coordinates.add(artifact.getGroupId() + ':' + artifact.getArtifactId());
+            }
+            LocalSnapshotIndex index = LocalSnapshotIndex.scan(localRepo, coordinates);
+            for (Map.Entry<String,PluginMetadata> entry : ucm.plugins.entrySet()) {
                 DefaultArtifact artifact = entry.getValue().getDefaultArtifact();
-                File artifactDir = new File(new File(localRepo, artifact.getGroupId().replace('.', File.separatorChar)), artifact.getArtifactId());
-                File metadata = new File(artifactDir, "maven-metadata-local.xml");
-                if (metadata.isFile()) {
-                    try {
-                        Version ucVersion = versionScheme.parseVersion(artifact.getVersion());
-                        NodeList versions = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(metadata).getElementsByTagName("version");
-                        for (int i = 0; i < versions.getLength(); i++) {
-                            String version = versions.item(i).getTextContent();
-                            if (version.endsWith("-SNAPSHOT") && versionScheme.parseVersion(version).compareTo(ucVersion) > 0) {
-                                File hpi = new File(new File(artifactDir, version), artifact.getArtifactId() + "-" + version + ".hpi");
-                                if (hpi.isFile()) {
-                                    String name = entry.getKey();
-                                    System.err.println("Overriding " + name + " " + ucVersion + " with local build of " + version);
-                                    PluginMetadata m = PluginMetadata.LocalOverride.create(hpi);
-                                    String parsedName = m.getName();
-                                    if (!name.equals(parsedName)) {
-                                        throw new AssertionError("wrong name: " + parsedName + " vs. " + name);
-                                    }
-                                    entry.setValue(m);
-                                }
-                            }
+                try {
+                    Version ucVersion = versionScheme.parseVersion(artifact.getVersion());
+                    Version newest = null;
+                    LocalSnapshotIndex.Snapshot snapshot = null;
+                    for (LocalSnapshotIndex.Snapshot s : index.get(artifact.getGroupId(), artifact.getArtifactId())) {
+                        Version version = versionScheme.parseVersion(s.version);
+                        if (version.compareTo(ucVersion) > 0 && (newest == null || version.compareTo(newest) > 0)) {
+                            newest = version;
+                            snapshot = s;
                         }
-                    } catch (Exception x) {
-                        x.printStackTrace();
                     }
+                    if (snapshot != null) {
+                        String name = entry.getKey();
+                        System.err.println("Overriding " + name + " " + ucVersion + " with local build of " + snapshot.version);
+                        PluginMetadata m = PluginMetadata.LocalOverride.create(snapshot.hpi);
+                        String parsedName = m.getName();
+                        if (!name.equals(parsedName)) {
+                            throw new AssertionError("wrong name: " + parsedName + " vs. " + name);
+                        }
+                        entry.setValue(m);
+                    }
+                } catch (Exception x) {
+                    x.printStackTrace();
                 }
             }
         }
@@ -0,0 +1,125 @@
+package org.jenkinsci.test.acceptance.update_center;
+
+import javax.annotation.Nonnull;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+/**
+ * Plugin snapshots installed to local Maven repository, to be used in place of the update center releases.
+ *
+ * <p>
+ * Only the artifacts of the given coordinates are inspected, in parallel, for <tt>-SNAPSHOT</tt> versions that were
+ * installed locally, as listed by <tt>maven-metadata-local.xml</tt>, and that have the hpi file. Parsed metadata are
+ * cached while the file modification time stays the same, so scanning the repository again in the same JVM only
+ * parses what has changed.
+ */
+final class LocalSnapshotIndex {
+    private static final Logger LOGGER = Logger.getLogger(LocalSnapshotIndex.class.getName());
+
+    private static final Map<File, Metadata> METADATA = new ConcurrentHashMap<>();
+
+    /**
+     * Snapshots by <tt>groupId:artifactId</tt>.
+     */
+    private final Map<String, List<Snapshot>> snapshots = new ConcurrentHashMap<>();
+
+    private LocalSnapshotIndex() {}
+
+    /**
+     * Index the plugin snapshots of the artifacts.
+     *
+     * @param coordinates Artifacts as <tt>groupId:artifactId</tt>.
+     */
+    static LocalSnapshotIndex scan(final File localRepo, Collection<String> coordinates) {
+        final LocalSnapshotIndex index = new LocalSnapshotIndex();
+        coordinates.parallelStream().forEach(coordinate -> {
+            int colon = coordinate.indexOf(':');
+            String groupId = coordinate.substring(0, colon);
+            String artifactId = coordinate.substring(colon + 1);
+            File artifactDir = new File(new File(localRepo, groupId.replace('.', File.separatorChar)), artifactId);
+            List<Snapshot> found = snapshotsOf(artifactDir, artifactId);
+            if (!found.isEmpty()) {
+                index.snapshots.put(coordinate, found);
+            }
+        });
+        return index;
+    }
+
+    private static List<Snapshot> snapshotsOf(File artifactDir, String artifactId) {
+        List<Snapshot> found = new ArrayList<>();
+        // Built and installed locally, not downloaded from a remote repository
+        for (String version : localVersions(new File(artifactDir, "maven-metadata-local.xml"))) {
+            if (!version.endsWith("-SNAPSHOT")) continue;
+
+            File hpi = new File(new File(artifactDir, version), artifactId + "-" + version + ".hpi");
+            if (hpi.isFile()) {
+                found.add(new Snapshot(version, hpi));
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Snapshots of the artifact.
+     */
+    @Nonnull List<Snapshot> get(String groupId, String artifactId) {
+        List<Snapshot> found = snapshots.get(groupId + ':' + artifactId);
+        return found == null ? Collections.<Snapshot>emptyList() : found;
+    }
+
+    /**
+     * Versions listed in the metadata, empty if it does not exist.
+     */
+    private static List<String> localVersions(File metadata) {
+        long modified = metadata.lastModified();
+        if (modified == 0) return Collections.emptyList();
+
+        Metadata cached = METADATA.get(metadata);
+        if (cached != null && cached.modified == modified) return cached.versions;
+
+        List<String> versions = new ArrayList<>();
+        try {
+            NodeList nodes = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(metadata).getElementsByTagName("version");
+            for (int i = 0; i < nodes.getLength(); i++) {
+                versions.add(nodes.item(i).getTextContent().trim());
+            }
+        } catch (ParserConfigurationException | SAXException | IOException e) {
+            LOGGER.log(Level.WARNING, "Unable to read " + metadata, e);
+        }
+        METADATA.put(metadata, new Metadata(modified, versions));
+        return versions;
+    }
+
+    private static final class Metadata {
+        private final long modified;
+        private final List<String> versions;
+
+        private Metadata(long modified, List<String> versions) {
+            this.modified = modified;
+            this.versions = versions;
+        }
+    }
+
+    static final class Snapshot {
+        final String version;
+        final File hpi;
+
+        private Snapshot(String version, File hpi) {
+            this.version = version;
+            this.hpi = hpi;
+        }
+    }
+}
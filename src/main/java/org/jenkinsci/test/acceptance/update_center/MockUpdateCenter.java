@@ -26,7 +26,6 @@ package org.jenkinsci.test.acceptance.update_center;
 
 import com.google.inject.Inject;
 import com.google.inject.Injector;
-import org.apache.commons.io.IOUtils;
 import org.apache.http.ConnectionClosedException;
 import org.apache.http.ExceptionLogger;
 import org.apache.http.HttpRequest;
@@ -35,7 +34,6 @@ import org.apache.http.HttpStatus;
 import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.FileEntity;
-import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.bootstrap.HttpServer;
 import org.apache.http.impl.bootstrap.ServerBootstrap;
 import org.apache.http.protocol.HttpContext;
@@ -53,12 +51,17 @@ import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import javax.annotation.CheckForNull;
+import javax.inject.Singleton;
 import java.io.File;
 import java.io.IOException;
-import java.net.HttpURLConnection;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.security.NoSuchAlgorithmException;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -102,41 +105,9 @@ public class MockUpdateCenter implements AutoCleaned {
             LOGGER.log(Level.WARNING, "cannot load data for mock update center", x);
             return;
         }
-        JSONObject all;
+        byte[] json;
         try {
-            all = new JSONObject(ucm.originalJSON);
-            all.remove("signature");
-            JSONObject plugins = all.getJSONObject("plugins");
-            LOGGER.info(() -> "editing JSON with " + plugins.length() + " plugins to reflect " + ucm.plugins.size() + " possible overrides");
-            for (PluginMetadata meta : ucm.plugins.values()) {
-                String name = meta.getName();
-                String version = meta.getVersion();
-                JSONObject plugin = plugins.optJSONObject(name);
-                if (plugin == null) {
-                    LOGGER.log(Level.INFO, "adding plugin {0}", name);
-                    plugin = new JSONObject().accumulate("name", name);
-                    plugins.put(name, plugin);
-                }
-                plugin.put("url", name + ".hpi");
-                updating(plugin, "version", version);
-                updating(plugin, "gav", meta.gav);
-                updating(plugin, "requiredCore", meta.requiredCore().toString());
-                updating(plugin, "dependencies", new JSONArray(meta.getDependencies().stream().map(d -> {
-                    try {
-                        return new JSONObject().accumulate("name", d.name).accumulate("version", d.version).accumulate("optional", d.optional);
-                    } catch (JSONException x) {
-                        throw new AssertionError(x);
-                    }
-                }).collect(Collectors.toList())));
-                // The fingerprints are not going to match after injecting different binary so we need to fix/recalculate
-                //   - For JUT before 2.168, only sha1 is checked if present, so let's simply remove it
-                plugin.remove("sha1");
-                //   - For JUT after 2.168, it is enough to recalculate the strongest cypher
-                if (meta instanceof PluginMetadata.ModifyingMetadata) {
-                    String sha512 = ((PluginMetadata.ModifyingMetadata) meta).getSha512Checksum(injector);
-                    plugin.put("sha512", sha512);
-                }
-            }
+            json = document(ucm);
         } catch (JSONException | NoSuchAlgorithmException | IOException x) {
             LOGGER.log(Level.WARNING, "cannot prepare mock update center", x);
             return;
@@ -147,10 +118,9 @@ public class MockUpdateCenter implements AutoCleaned {
             add(new RequestConnControl()).
             build();
         UriHttpRequestHandlerMapper handlerMapper = new UriHttpRequestHandlerMapper();
-        String json = "updateCenter.post(\n" + all + "\n);";
         handlerMapper.register("/update-center.json", (HttpRequest request, HttpResponse response, HttpContext context) -> {
             response.setStatusCode(HttpStatus.SC_OK);
-            response.setEntity(new StringEntity(json, ContentType.APPLICATION_JSON));
+            response.setEntity(new ByteArrayEntity(json, ContentType.APPLICATION_JSON));
         });
         handlerMapper.register("*.hpi", (HttpRequest request, HttpResponse response, HttpContext context) -> {
             String plugin = request.getRequestLine().getUri().replaceFirst("^/(.+)[.]hpi$", "$1");
@@ -167,19 +137,17 @@ public class MockUpdateCenter implements AutoCleaned {
         });
         handlerMapper.register("*", (HttpRequest request, HttpResponse response, HttpContext context) -> {
             String location = original.replace("/update-center.json", request.getRequestLine().getUri());
-            LOGGER.log(Level.INFO, "redirect to {0}", location);
+            LOGGER.log(Level.INFO, "proxying {0}", location);
             /* TODO for some reason DownloadService.loadJSONHTML does not seem to process the redirect, despite calling setInstanceFollowRedirects(true):
             response.setStatusCode(HttpStatus.SC_MOVED_TEMPORARILY);
             response.setHeader("Location", location);
              */
-            HttpURLConnection uc = (HttpURLConnection) new URL(location).openConnection();
-            uc.setInstanceFollowRedirects(true);
-            // TODO consider caching these downloads locally like CachedUpdateCenterMetadataLoader does for the main update-center.json
-            byte[] data = IOUtils.toByteArray(uc);
-            String contentType = uc.getContentType();
+            DownloadCache.Entry cached = injector.getInstance(DownloadCache.class).get(new URL(location));
             response.setStatusCode(HttpStatus.SC_OK);
-            response.setEntity(new ByteArrayEntity(data, ContentType.create(contentType)));
-
+            response.setEntity(new FileEntity(cached.file, cached.contentType == null
+                    ? ContentType.DEFAULT_BINARY
+                    : ContentType.parse(cached.contentType)
+            ));
         });
         server = ServerBootstrap.bootstrap().
             // could setLocalAddress if using a JenkinsController that requires it
@@ -202,6 +170,69 @@ public class MockUpdateCenter implements AutoCleaned {
         jenkins.runScript("DownloadService.signatureCheck = false; Jenkins.instance.updateCenter.sites.replaceBy([new UpdateSite(UpdateCenter.ID_DEFAULT, '%s')])", override);
     }
 
+    /**
+     * Get the update center document reflecting the plugin metadata, preparing it unless prepared already.
+     */
+    private byte[] document(UpdateCenterMetadata ucm) throws JSONException, NoSuchAlgorithmException, IOException {
+        // Overriding plugins are identified by their checksum so rebuilt local plugins are reflected
+        StringBuilder overrides = new StringBuilder();
+        for (PluginMetadata meta : new TreeMap<>(ucm.plugins).values()) {
+            overrides.append(meta).append(' ').append(meta.gav);
+            if (meta instanceof PluginMetadata.ModifyingMetadata) {
+                overrides.append(' ').append(((PluginMetadata.ModifyingMetadata) meta).getSha512Checksum(injector));
+            }
+            overrides.append('\n');
+        }
+
+        Documents documents = injector.getInstance(Documents.class);
+        byte[] cached = documents.get(ucm, overrides.toString());
+        if (cached != null) {
+            return cached;
+        }
+
+        String originalJSON = ucm.getOriginalJSON();
+        if (originalJSON == null) {
+            throw new IOException("No update center document for " + ucm.id);
+        }
+        JSONObject all = new JSONObject(originalJSON);
+        all.remove("signature");
+        JSONObject plugins = all.getJSONObject("plugins");
+        LOGGER.info(() -> "editing JSON with " + plugins.length() + " plugins to reflect " + ucm.plugins.size() + " possible overrides");
+        for (PluginMetadata meta : ucm.plugins.values()) {
+            String name = meta.getName();
+            String version = meta.getVersion();
+            JSONObject plugin = plugins.optJSONObject(name);
+            if (plugin == null) {
+                LOGGER.log(Level.INFO, "adding plugin {0}", name);
+                plugin = new JSONObject().accumulate("name", name);
+                plugins.put(name, plugin);
+            }
+            plugin.put("url", name + ".hpi");
+            updating(plugin, "version", version);
+            updating(plugin, "gav", meta.gav);
+            updating(plugin, "requiredCore", meta.requiredCore().toString());
+            updating(plugin, "dependencies", new JSONArray(meta.getDependencies().stream().map(d -> {
+                try {
+                    return new JSONObject().accumulate("name", d.name).accumulate("version", d.version).accumulate("optional", d.optional);
+                } catch (JSONException x) {
+                    throw new AssertionError(x);
+                }
+            }).collect(Collectors.toList())));
+            // The fingerprints are not going to match after injecting different binary so we need to fix/recalculate
+            //   - For JUT before 2.168, only sha1 is checked if present, so let's simply remove it
+            plugin.remove("sha1");
+            //   - For JUT after 2.168, it is enough to recalculate the strongest cypher
+            if (meta instanceof PluginMetadata.ModifyingMetadata) {
+                String sha512 = ((PluginMetadata.ModifyingMetadata) meta).getSha512Checksum(injector);
+                plugin.put("sha512", sha512);
+            }
+        }
+
+        byte[] json = ("updateCenter.post(\n" + all + "\n);").getBytes(StandardCharsets.UTF_8);
+        documents.put(ucm, overrides.toString(), json);
+        return json;
+    }
+
     private ExceptionLogger serverExceptionHandler() {
         return (Exception x) -> {
             if (server == null) return; // Going down
@@ -231,4 +262,25 @@ public class MockUpdateCenter implements AutoCleaned {
             original = null;
         }
     }
+
+    /**
+     * Update center documents prepared in this JVM, so they are not prepared again for every test.
+     */
+    @Singleton
+    static final class Documents {
+        private final Map<UpdateCenterMetadata, String> overrides = new WeakHashMap<>();
+        private final Map<UpdateCenterMetadata, byte[]> documents = new WeakHashMap<>();
+
+        /**
+         * @return null unless prepared for the metadata with the same overrides.
+         */
+        synchronized @CheckForNull byte[] get(UpdateCenterMetadata ucm, String overrides) {
+            return overrides.equals(this.overrides.get(ucm)) ? documents.get(ucm) : null;
+        }
+
+        synchronized void put(UpdateCenterMetadata ucm, String overrides, byte[] document) {
+            this.overrides.put(ucm, overrides);
+            this.documents.put(ucm, document);
+        }
+    }
 }
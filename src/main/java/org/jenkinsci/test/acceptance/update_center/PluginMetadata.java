@@ -11,7 +11,10 @@ import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.jar.Attributes;
 import java.util.jar.JarFile;
 import java.util.regex.Pattern;
@@ -85,6 +88,30 @@ public class PluginMetadata {
         return r.getArtifact().getFile();
     }
 
+    /**
+     * Resolve the plugins in their versions, downloading them in parallel.
+     *
+     * @return Files in the order of the plugins.
+     */
+    public static List<File> resolve(Injector i, List<? extends PluginMetadata> plugins) {
+        List<DefaultArtifact> artifacts = new ArrayList<>();
+        for (PluginMetadata p : plugins) {
+            if (!(p instanceof LocalOverride)) {
+                artifacts.add(p.getDefaultArtifact());
+            }
+        }
+
+        Iterator<ArtifactResult> results = i.getInstance(ArtifactResolverUtil.class).resolveAll(artifacts).iterator();
+        List<File> files = new ArrayList<>(plugins.size());
+        for (PluginMetadata p : plugins) {
+            files.add(p instanceof LocalOverride
+                    ? p.resolve(i, p.getVersion())
+                    : results.next().getArtifact().getFile()
+            );
+        }
+        return files;
+    }
+
     public DefaultArtifact getDefaultArtifact() {
         String[] t = gav.split(":");
         String gavVersion;
@@ -211,13 +238,25 @@ public class PluginMetadata {
             super(name, gav, version, requiredCore, dependencies);
         }
 
+        /**
+         * Checksums by the path, modification time and size of the file, so unchanged files are not hashed again.
+         */
+        private static final Map<String, String> SHA512 = new ConcurrentHashMap<>();
+
         public final String getSha512Checksum(Injector injector) throws NoSuchAlgorithmException, IOException {
+            File file = resolve(injector, getVersion());
+            String key = file.getAbsolutePath() + '@' + file.lastModified() + '/' + file.length();
+            String checksum = SHA512.get(key);
+            if (checksum != null) return checksum;
+
             MessageDigest sha512 = MessageDigest.getInstance("SHA-512");
-            Path overrideFile = resolve(injector, getVersion()).toPath();
+            Path overrideFile = file.toPath();
             try (DigestOutputStream dos512 = new DigestOutputStream(new NullOutputStream(), sha512)) {
                 Files.copy(overrideFile, dos512);
             }
-            return Base64.encodeBase64String(sha512.digest());
+            checksum = Base64.encodeBase64String(sha512.digest());
+            SHA512.put(key, checksum);
+            return checksum;
         }
     }
 }
@@ -1,22 +1,29 @@
 package org.jenkinsci.test.acceptance.update_center;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import hudson.util.VersionNumber;
 
-import java.io.BufferedReader;
+import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileReader;
+import java.io.FileInputStream;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import javax.annotation.CheckForNull;
+
 import org.jenkinsci.test.acceptance.po.Jenkins;
-import org.junit.internal.AssumptionViolatedException;
 
 /**
  * Databinding for Update Center metadata
@@ -31,27 +38,73 @@ public class UpdateCenterMetadata {
 
     public String id;
 
-    String originalJSON;
+    private static final ObjectMapper MAPPER = new ObjectMapper().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    /**
+     * The JSON document mapped from the file it was parsed from, not to be held in heap.
+     */
+    private @CheckForNull ByteBuffer originalJSON;
+
+    private DependencyGraph graph;
 
     /**
      * Create metadata parsing Jenkins update center file.
      *
+     * The plugins are read one by one as the file is streamed, the document itself is not kept in memory.
+     *
      * @param data
      *      .json or .json.html file served from update center.
      */
     public static UpdateCenterMetadata parse(File data) throws IOException {
-        try (BufferedReader r = new BufferedReader(new FileReader(data))) {
-            r.readLine();   // the first line is preamble
-            String json = r.readLine(); // the 2nd line is the actual JSON
-            r.readLine();   // the third line is postamble
-
-            ObjectMapper om = new ObjectMapper();
-            om.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
-            UpdateCenterMetadata v = om.readValue(json, UpdateCenterMetadata.class);
-            v.originalJSON = json;
-            v.init();
-            return v;
+        UpdateCenterMetadata v = new UpdateCenterMetadata();
+        long preamble = 0;
+        long from, to;
+        try (InputStream in = new BufferedInputStream(new FileInputStream(data))) {
+            // the first line is preamble
+            for (int b = in.read(); b != '\n'; b = in.read()) {
+                if (b == -1) throw new IOException("No update center data in " + data);
+                preamble++;
+            }
+            preamble++;
+
+            // the 2nd line is the actual JSON, the third line is postamble that is never read
+            try (JsonParser p = MAPPER.getFactory().createParser(in)) {
+                if (p.nextToken() != JsonToken.START_OBJECT) throw new IOException("No update center data in " + data);
+                from = p.getTokenLocation().getByteOffset();
+
+                while (p.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = p.getCurrentName();
+                    p.nextToken();
+                    if ("id".equals(field)) {
+                        v.id = p.getValueAsString();
+                    } else if ("plugins".equals(field)) {
+                        while (p.nextToken() == JsonToken.FIELD_NAME) {
+                            String name = p.getCurrentName();
+                            p.nextToken();
+                            v.plugins.put(name, MAPPER.readValue(p, PluginMetadata.class));
+                        }
+                    } else {
+                        p.skipChildren();
+                    }
+                }
+                to = p.getTokenLocation().getByteOffset() + 1;
+            }
         }
+
+        try (FileChannel channel = FileChannel.open(data.toPath(), StandardOpenOption.READ)) {
+            v.originalJSON = channel.map(FileChannel.MapMode.READ_ONLY, preamble + from, to - from);
+        }
+        v.init();
+        return v;
+    }
+
+    /**
+     * The JSON document the metadata was parsed from.
+     *
+     * @return null if not {@linkplain #parse(File) parsed}.
+     */
+    /*package*/ @CheckForNull String getOriginalJSON() {
+        return originalJSON == null ? null : StandardCharsets.UTF_8.decode(originalJSON.duplicate()).toString();
     }
 
     public static UpdateCenterMetadata get(String id, Map<String,PluginMetadata> plugins) {
@@ -80,67 +133,31 @@ public class UpdateCenterMetadata {
      */
     @Deprecated
     public List<PluginMetadata> transitiveDependenciesOf(Jenkins jenkins, Collection<PluginSpec> plugins) throws UnableToResolveDependencies {
-        List<PluginMetadata> set = new ArrayList<>();
-        for (PluginSpec n : plugins) {
-            PluginMetadata p = this.plugins.get(n.getName());
-            if (p==null) {
-                // The plugin explicitly requested is not available in the configured update center
-                // Skipping the test since it can happen for both upstream and downstream update centers
-                throw new AssumptionViolatedException("No such plugin " + n.getName());
-            }
-            if (p.requiredCore().isNewerThan(jenkins.getVersion())) {
-                throw new UnableToResolveDependencies(String.format(
-                        "Unable to install %s plugin because of core dependency. Required: %s Used: %s",
-                        p, p.requiredCore(), jenkins
-                ));
-            }
-
-            transitiveDependenciesOf(jenkins, p, n.getVersion(), set);
-        }
-
-        return set;
+        return transitiveDependenciesOf(jenkins.getVersion(), jenkins.getPluginManager().getInstalledVersions(), plugins);
     }
 
-    @Deprecated
-    private void transitiveDependenciesOf(Jenkins jenkins, PluginMetadata p, String v, List<PluginMetadata> result) {
-        for (Dependency d : p.getDependencies()) {
-            if (d.optional || !shouldBeIncluded(jenkins, d)) continue;
-            PluginMetadata depMetaData = plugins.get(d.name);
-            if (depMetaData == null) {
-                throw new UnableToResolveDependencies(
-                    String.format("Unable to install dependency '%s' for '%s': plugin not found", d, p)
-                );
-            }
-            transitiveDependenciesOf(jenkins, depMetaData, d.version, result);
-        }
-
-        if (!result.contains(p)) {
-            if (p.requiredCore().isNewerThan(jenkins.getVersion())) {
-                // If latest version is too new for current Jenkins, use the declared one
-                result.add(p.withVersion(v));
-            } else {
-                result.add(p);
-            }
-        }
+    /**
+     * Find all the transitive dependency plugins of the given plugins, in the order of installation, for Jenkins that
+     * is not running yet.
+     *
+     * Transitive dependencies will not be included if there is an already valid version of the plugin installed.
+     *
+     * @param core Version of Jenkins the plugins are to be installed to.
+     * @param installed Versions of plugins installed already, by their name.
+     * @throws UnableToResolveDependencies When there requested plugin version can not be installed.
+     */
+    public List<PluginMetadata> transitiveDependenciesOf(VersionNumber core, Map<String, VersionNumber> installed, Collection<PluginSpec> plugins) throws UnableToResolveDependencies {
+        return getDependencyGraph().plan(core, installed, plugins);
     }
 
     /**
-     * Assess whether the dependency actually needs to be installed or upgraded.
-     * 
-     * @param jenkins top-level jenkins object
-     * @param d the dependency
-     * @return true if the dependency should be installed/upgraded. Otherwise, false.
+     * Dependency graph of the plugins, built the first time it is needed so after the metadata was decorated.
      */
-    @Deprecated
-    private boolean shouldBeIncluded(Jenkins jenkins, Dependency d) {
-        try {
-            VersionNumber installedVersion = jenkins.getPlugin(d.name).getVersion();
-            VersionNumber requiredVersion = new VersionNumber(d.version);
-            return installedVersion.isOlderThan(requiredVersion);
-        } catch (IllegalArgumentException ex) {
-            // Plugin not installed
-            return true;
+    private synchronized DependencyGraph getDependencyGraph() {
+        if (graph == null) {
+            graph = new DependencyGraph(plugins);
         }
+        return graph;
     }
 
     /**
@@ -25,6 +25,7 @@
 package org.jenkinsci.test.acceptance.update_center;
 
 import com.google.inject.ImplementedBy;
+import hudson.util.VersionNumber;
 import java.io.IOException;
 import org.jenkinsci.test.acceptance.po.Jenkins;
 
@@ -42,4 +43,24 @@ public interface UpdateCenterMetadataProvider {
      */
     UpdateCenterMetadata get(Jenkins jenkins) throws IOException;
 
+    /**
+     * Loads metadata for Jenkins that is not running yet.
+     *
+     * Optional operation, supported only if {@link #canLoadWithoutJenkins()} is true.
+     * @param jenkinsVersion version of the Jenkins the metadata is for
+     * @return parsed {@code update-center.json}
+     * @throws IOException if there is any problem
+     * @throws UnsupportedOperationException if the provider needs running Jenkins
+     */
+    default UpdateCenterMetadata get(VersionNumber jenkinsVersion) throws IOException {
+        throw new UnsupportedOperationException(getClass().getName() + " needs running Jenkins");
+    }
+
+    /**
+     * Whether {@link #get(VersionNumber)} is supported.
+     */
+    default boolean canLoadWithoutJenkins() {
+        return false;
+    }
+
 }
@@ -23,7 +23,17 @@
  */
 package org.jenkinsci.test.acceptance.utils;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
 
 /**
  * Scale time measurement to support individual execution schemes.
@@ -38,10 +48,19 @@ import java.util.concurrent.TimeUnit;
  *
  * This implementation takes number of concurrent threads into account.
  *
+ * <p>
+ * With <tt>-DElasticTime.adaptive=true</tt>, the time is scaled by the slowdown measured on the host instead of the
+ * number of concurrent threads: the duration of a short CPU/IO benchmark run once per JVM compared to
+ * <tt>-DElasticTime.referenceBenchmark</tt> (ms), Jenkins boot times compared to <tt>-DElasticTime.referenceBoot</tt>
+ * (ms), and the system load per CPU. The factor is updated as the run progresses, never dropping below
+ * <tt>ElasticTime.factor</tt> nor exceeding twice the non-adaptive value.
+ *
  * @author ogondza
  */
 public class ElasticTime {
 
+    private static final boolean ADAPTIVE = Boolean.getBoolean("ElasticTime.adaptive");
+
     /**
      * Amount of threads executing concurrently. Time is slowed down proportionally multiplying the time;
      */
@@ -59,7 +78,131 @@ public class ElasticTime {
     }
 
     public long milliseconds(long ms) {
-        double actualSeconds = concurrency * factor;
-        return Math.round(ms * actualSeconds);
+        return Math.round(ms * getFactor());
+    }
+
+    /**
+     * Current multiplier of the time.
+     */
+    public double getFactor() {
+        if (!ADAPTIVE) return concurrency * factor;
+
+        return Calibration.get().slowdown(concurrency, factor);
+    }
+
+    /**
+     * Report how long it took Jenkins to boot, to calibrate adaptive factor.
+     */
+    public static void recordBoot(long millis) {
+        if (ADAPTIVE) {
+            Calibration.get().boot(millis);
+        }
+    }
+
+    @Override
+    public String toString() {
+        String mode = ADAPTIVE ? Calibration.get().toString() : "forkCount=" + concurrency;
+        return String.format("ElasticTime factor %.2f (ElasticTime.factor=%s, %s)", getFactor(), factor, mode);
+    }
+
+    /**
+     * Measured performance of the host relative to the reference environment, shared by the JVM.
+     */
+    @VisibleForTesting static final class Calibration {
+        private static final Logger LOGGER = Logger.getLogger(ElasticTime.class.getName());
+
+        private static final long REFERENCE_BENCHMARK = Long.getLong("ElasticTime.referenceBenchmark", 250);
+        private static final long REFERENCE_BOOT = Long.getLong("ElasticTime.referenceBoot", 30000);
+
+        private static final long LOAD_SAMPLING = TimeUnit.SECONDS.toMillis(10);
+
+        private static Calibration INSTANCE;
+
+        private final int cores = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * Benchmark duration relative to reference.
+         */
+        private final double benchmark;
+
+        /**
+         * Moving average of boot times relative to reference, negative until first boot is recorded.
+         */
+        private volatile double boot = -1;
+
+        private volatile double load;
+        private volatile long loadSampled;
+
+        @VisibleForTesting Calibration(double benchmark) {
+            this.benchmark = benchmark;
+        }
+
+        private static synchronized Calibration get() {
+            if (INSTANCE == null) {
+                long duration = benchmark();
+                INSTANCE = new Calibration((double) duration / REFERENCE_BENCHMARK);
+                LOGGER.info(String.format("Benchmark took %d ms, reference is %d ms", duration, REFERENCE_BENCHMARK));
+            }
+            return INSTANCE;
+        }
+
+        /**
+         * Hash data in memory and write it to disk and back.
+         */
+        private static long benchmark() {
+            long start = System.nanoTime();
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                byte[] data = new byte[1024 * 1024];
+                for (int i = 0; i < 32; i++) {
+                    data[i] = (byte) i;
+                    digest.update(data);
+                }
+
+                File file = File.createTempFile("elastic-time", ".bin");
+                try {
+                    try (FileOutputStream out = new FileOutputStream(file)) {
+                        for (int i = 0; i < 8; i++) {
+                            out.write(data);
+                        }
+                        out.getFD().sync();
+                    }
+                    digest.update(Files.readAllBytes(file.toPath()));
+                } finally {
+                    file.delete();
+                }
+            } catch (IOException | NoSuchAlgorithmException e) {
+                LOGGER.warning("Benchmark failed, assuming reference performance: " + e);
+                return REFERENCE_BENCHMARK;
+            }
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        }
+
+        /*package*/ void boot(long millis) {
+            double ratio = (double) millis / REFERENCE_BOOT;
+            boot = boot < 0 ? ratio : 0.7 * boot + 0.3 * ratio;
+        }
+
+        /*package*/ double slowdown(int concurrency, double factor) {
+            long now = System.currentTimeMillis();
+            if (now - loadSampled > LOAD_SAMPLING) {
+                loadSampled = now;
+                load = Math.max(0, ManagementFactory.getOperatingSystemMXBean().getSystemLoadAverage());
+            }
+            return slowdown(concurrency, factor, load);
+        }
+
+        @VisibleForTesting double slowdown(int concurrency, double factor, double load) {
+            // Boot times are the better measure once known, the benchmark is a rough estimate to start with
+            double speed = boot < 0 ? benchmark : boot;
+            double contention = load / cores;
+            double slowdown = Math.max(speed, contention);
+            return factor * Math.min(Math.max(1, slowdown), 2 * Math.max(1, concurrency));
+        }
+
+        @Override
+        public String toString() {
+            return String.format("adaptive: benchmark=%.2f, boot=%.2f, load=%.2f, cores=%d", benchmark, boot, load, cores);
+        }
     }
 }
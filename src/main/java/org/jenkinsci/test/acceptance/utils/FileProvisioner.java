@@ -0,0 +1,164 @@
+package org.jenkinsci.test.acceptance.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.Nonnull;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang.StringUtils;
+import org.jenkinsci.utils.process.CommandBuilder;
+
+/**
+ * Populates directories from read-only templates avoiding the actual copy where the filesystem permits.
+ *
+ * <p>
+ * The mode is selected by <tt>PLUGINS_PROVISIONING</tt> environment variable:
+ * <ul>
+ *     <li><tt>copy</tt> (default) copies the files,</li>
+ *     <li><tt>hardlink</tt> creates hard links to the template files,</li>
+ *     <li><tt>reflink</tt> creates copy-on-write clones using <tt>cp --reflink</tt>.</li>
+ * </ul>
+ * Every file that can not be linked or cloned, typically because the template is on other filesystem, is copied.
+ *
+ * Note the hard links share content with the template so the files must not be modified in place. That holds for
+ * Jenkins plugin archives as Jenkins replaces them on update rather than rewriting them.
+ */
+public class FileProvisioner {
+    private static final Logger LOGGER = Logger.getLogger(FileProvisioner.class.getName());
+
+    public enum Mode {
+        COPY, HARDLINK, REFLINK;
+
+        public static @Nonnull Mode fromEnvironment() {
+            String mode = System.getenv("PLUGINS_PROVISIONING");
+            if (StringUtils.isBlank(mode)) return COPY;
+            try {
+                return valueOf(mode.trim().toUpperCase(Locale.ENGLISH));
+            } catch (IllegalArgumentException e) {
+                throw new Error("Unrecognized PLUGINS_PROVISIONING value: " + mode);
+            }
+        }
+    }
+
+    /**
+     * Bytes copied and time spent copying them through the whole run, used to estimate the time saved by linking.
+     */
+    private static final AtomicLong COPIED_BYTES = new AtomicLong();
+    private static final AtomicLong COPIED_MILLIS = new AtomicLong();
+
+    private final @Nonnull Mode mode;
+
+    public FileProvisioner(@Nonnull Mode mode) {
+        this.mode = mode;
+    }
+
+    public @Nonnull Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Populate target directory with the content of the template directory.
+     */
+    public @Nonnull Result provision(@Nonnull File from, @Nonnull File to) throws IOException {
+        long start = System.currentTimeMillis();
+        Result result = new Result(mode);
+        if (mode == Mode.REFLINK && reflink(from, to)) {
+            result.linkedBytes = FileUtils.sizeOfDirectory(from);
+        } else {
+            provisionDirectory(from, to, result);
+        }
+        result.millis = System.currentTimeMillis() - start;
+
+        if (result.copiedBytes > 0) {
+            COPIED_BYTES.addAndGet(result.copiedBytes);
+            COPIED_MILLIS.addAndGet(Math.max(1, result.millis));
+        }
+        return result;
+    }
+
+    private void provisionDirectory(File from, File to, Result result) throws IOException {
+        Files.createDirectories(to.toPath());
+        File[] files = from.listFiles();
+        if (files == null) throw new IOException("Unable to list " + from);
+
+        for (File src : files) {
+            File dst = new File(to, src.getName());
+            if (src.isDirectory()) {
+                provisionDirectory(src, dst, result);
+            } else {
+                if (mode == Mode.HARDLINK && link(src, dst)) {
+                    result.linkedBytes += src.length();
+                } else {
+                    FileUtils.copyFile(src, dst);
+                    result.copiedBytes += src.length();
+                }
+            }
+        }
+    }
+
+    private boolean link(File src, File dst) {
+        try {
+            Files.deleteIfExists(dst.toPath());
+            Files.createLink(dst.toPath(), src.toPath());
+            return true;
+        } catch (IOException | UnsupportedOperationException | SecurityException e) {
+            LOGGER.log(Level.FINE, "Unable to link " + src + ", copying", e);
+            return false;
+        }
+    }
+
+    private boolean reflink(File from, File to) {
+        try {
+            Files.createDirectories(to.toPath());
+            int exit = new CommandBuilder("cp", "-R", "--reflink=always", from.getAbsolutePath() + "/.", to.getAbsolutePath()).system();
+            if (exit == 0) return true;
+            LOGGER.info("Unable to reflink " + from + ", copying");
+        } catch (IOException | InterruptedException e) {
+            LOGGER.log(Level.INFO, "Unable to reflink " + from + ", copying", e);
+        }
+        return false;
+    }
+
+    /**
+     * Statistics of single provisioning.
+     */
+    public static final class Result {
+        public final @Nonnull Mode mode;
+        /**
+         * Size of files that did not need to be copied.
+         */
+        public long linkedBytes;
+        public long copiedBytes;
+        public long millis;
+
+        private Result(@Nonnull Mode mode) {
+            this.mode = mode;
+        }
+
+        /**
+         * Estimate of the time saved by not copying the linked files, based on the copy throughput observed so far.
+         *
+         * @return -1 if there was no copy to estimate the throughput from.
+         */
+        public long getSavedMillis() {
+            long bytes = COPIED_BYTES.get();
+            if (bytes == 0) return linkedBytes == 0 ? 0 : -1;
+            return linkedBytes * COPIED_MILLIS.get() / bytes;
+        }
+
+        @Override
+        public String toString() {
+            long saved = getSavedMillis();
+            return String.format("%s: %d bytes linked, %d bytes copied in %d ms, saved %s",
+                    mode.name().toLowerCase(Locale.ENGLISH), linkedBytes, copiedBytes, millis,
+                    saved < 0 ? "unknown time" : saved + " ms"
+            );
+        }
+    }
+}
@@ -82,7 +82,9 @@ public class IOUtil {
      *
      * @param from if <=0 then default value 49152 is used
      * @param to   if <=0 then default value 65535 is used
+     * @deprecated Racy when tests run in parallel, use {@link PortLeases}.
      */
+    @Deprecated
     public static int randomTcpPort(int from, int to){
         from = (from <=0) ? 49152 : from;
         to = (to <= 0) ? 65535 : to;
@@ -99,7 +101,9 @@ public class IOUtil {
 
     /**
      * Gives random available TCP port.
+     * @deprecated Racy when tests run in parallel, use {@link PortLeases#next()}.
      */
+    @Deprecated
     public static int randomTcpPort(){
         return randomTcpPort(-1,-1);
     }
@@ -0,0 +1,211 @@
+package org.jenkinsci.test.acceptance.utils;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+/**
+ * Hands out TCP ports that do not collide with other test JVMs running concurrently.
+ *
+ * <p>
+ * Every JVM leases a block of ports, exclusively, by locking a file in a directory shared by the JVMs. The lock is
+ * released by the OS when the JVM terminates, so there is nothing to clean up after crashed forks. Ports are then
+ * handed out from the block in sequence, skipping those that are occupied by unrelated processes.
+ *
+ * <p>
+ * Blocks are allocated below the ephemeral port range of common OSes so they do not collide with the ports OS assigns
+ * to outgoing connections and servers bound to port 0. Configurable via <tt>-DPortLeases.base</tt> (20000 by default),
+ * <tt>-DPortLeases.blockSize</tt> (100), <tt>-DPortLeases.blocks</tt> (120) and <tt>-DPortLeases.dir</tt>
+ * (<tt>target/port-leases</tt>).
+ */
+public class PortLeases {
+    private static final Logger LOGGER = Logger.getLogger(PortLeases.class.getName());
+
+    private static final int BASE = Integer.getInteger("PortLeases.base", 20000);
+    private static final int BLOCK_SIZE = Integer.getInteger("PortLeases.blockSize", 100);
+    private static final int BLOCKS = Integer.getInteger("PortLeases.blocks", 120);
+
+    private static PortLeases INSTANCE;
+
+    /**
+     * Lock files locked by this JVM.
+     *
+     * Those are never opened again while locked, as closing any channel to the file can release the lock held by the
+     * JVM through other channel.
+     */
+    private static final Set<String> HELD = new HashSet<>();
+
+    private final File dir;
+
+    private Block block;
+    private int next;
+
+    /**
+     * Blocks with all the ports in use, kept locked so other JVMs do not try them.
+     */
+    private final List<Block> exhausted = new ArrayList<>();
+
+    /*package*/ PortLeases(@Nonnull File dir) {
+        this.dir = dir;
+    }
+
+    public static synchronized @Nonnull PortLeases get() {
+        if (INSTANCE == null) {
+            String dir = System.getProperty("PortLeases.dir");
+            INSTANCE = new PortLeases(dir != null
+                    ? new File(dir)
+                    : new File(System.getProperty("user.dir"), "target/port-leases")
+            );
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * Get a free port from the block leased by this JVM.
+     */
+    public synchronized int next() {
+        for (int attempts = 0; attempts < BLOCKS; attempts++) {
+            if (block == null) {
+                block = leaseBlock();
+                next = 0;
+            }
+
+            // Try all ports in the block, wrapping around as earlier ports are released by finished tests
+            for (int i = 0; i < BLOCK_SIZE; i++) {
+                int candidate = block.from + (next++ % BLOCK_SIZE);
+                if (IOUtil.isTcpPortFree(candidate)) {
+                    return candidate;
+                }
+                LOGGER.info(String.format("Port %s is in use", candidate));
+            }
+
+            LOGGER.warning("All ports of " + block + " are in use, leasing another block");
+            exhausted.add(block);
+            block = null;
+        }
+        throw new IllegalStateException("Unable to find free port in any port block");
+    }
+
+    /**
+     * Lease a port from explicit range, exclusively among the JVMs.
+     *
+     * Use for ports of special meaning, like VNC displays, that can not be taken from the JVM's block.
+     * The lease needs to be closed once the port is no longer used.
+     */
+    public @Nonnull Lease lease(int from, int to) {
+        for (int port = from; port <= to; port++) {
+            FileLock lock = tryLock(lockName(port));
+            if (lock == null) continue;
+
+            if (IOUtil.isTcpPortFree(port)) {
+                return new Lease(port, lock);
+            }
+            release(lock, lockName(port));
+        }
+        throw new IllegalStateException(String.format("No free port in range %d-%d", from, to));
+    }
+
+    private static String lockName(int port) {
+        return "port-" + port + ".lock";
+    }
+
+    private Block leaseBlock() {
+        for (int i = 0; i < BLOCKS; i++) {
+            FileLock lock = tryLock("block-" + i + ".lock");
+            if (lock != null) {
+                Block b = new Block(BASE + i * BLOCK_SIZE, lock);
+                LOGGER.info("Leased " + b);
+                return b;
+            }
+        }
+        throw new IllegalStateException("All " + BLOCKS + " port blocks are leased by other JVMs in " + dir);
+    }
+
+    private @CheckForNull FileLock tryLock(String name) {
+        File file = new File(dir, name).getAbsoluteFile();
+        synchronized (HELD) {
+            if (HELD.contains(file.getPath())) return null; // Held by this JVM
+
+            try {
+                Files.createDirectories(dir.toPath());
+                FileChannel channel = new RandomAccessFile(file, "rw").getChannel();
+                FileLock lock = channel.tryLock();
+                if (lock == null) { // Held by other JVM, this JVM has no lock to lose by closing
+                    channel.close();
+                    return null;
+                }
+                HELD.add(file.getPath());
+                return lock;
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to lock " + name + " in " + dir, e);
+            }
+        }
+    }
+
+    private void release(FileLock lock, String name) {
+        synchronized (HELD) {
+            try {
+                lock.release();
+                lock.channel().close();
+            } catch (IOException e) {
+                // Released when JVM terminates anyway
+            }
+            HELD.remove(new File(dir, name).getAbsoluteFile().getPath());
+        }
+    }
+
+    private static final class Block {
+        private final int from;
+        @SuppressWarnings("unused") // Held for the lifetime of the JVM
+        private final FileLock lock;
+
+        private Block(int from, FileLock lock) {
+            this.from = from;
+            this.lock = lock;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("port block %d-%d", from, from + BLOCK_SIZE - 1);
+        }
+    }
+
+    /**
+     * Port leased from explicit range.
+     */
+    public final class Lease implements Closeable {
+        private final int port;
+        private final FileLock lock;
+
+        private Lease(int port, FileLock lock) {
+            this.port = port;
+            this.lock = lock;
+        }
+
+        public int getPort() {
+            return port;
+        }
+
+        @Override
+        public void close() {
+            release(lock, lockName(port));
+        }
+
+        @Override
+        public String toString() {
+            return "Release port lease " + port;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package org.jenkinsci.test.acceptance.utils;
+
+import javax.annotation.CheckForNull;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.ConnectionClosedException;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.FileEntity;
+import org.apache.http.impl.bootstrap.HttpServer;
+import org.apache.http.impl.bootstrap.ServerBootstrap;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpProcessorBuilder;
+import org.apache.http.protocol.RequestConnControl;
+import org.apache.http.protocol.ResponseContent;
+import org.apache.http.protocol.ResponseServer;
+import org.apache.http.protocol.UriHttpRequestHandlerMapper;
+import org.jenkinsci.test.acceptance.guice.WorldCleaner;
+import org.jenkinsci.test.acceptance.junit.Resource;
+
+/**
+ * Serves files to builds over HTTP so they do not need to be embedded in the job configuration.
+ *
+ * <p>
+ * Files are staged gzipped under the hash of their content, so the same content is staged and served once no matter
+ * how many jobs or tests use it. Staged files are streamed from disk, never held in memory.
+ *
+ * <p>
+ * The server listens on all interfaces and is meant to be reached through the host Jenkins is reachable at, so it is
+ * only usable with Jenkins running on the same machine as the tests.
+ */
+@Singleton
+public class ResourceServer implements Closeable {
+    private static final Logger LOGGER = Logger.getLogger(ResourceServer.class.getName());
+
+    @Inject
+    private WorldCleaner cleaner;
+
+    private File dir;
+    private HttpServer server;
+    private boolean failed;
+
+    /**
+     * Content hash per staged source, to avoid reading the unchanged sources again.
+     */
+    private final Map<String, String> staged = new HashMap<>();
+
+    private final AtomicLong requests = new AtomicLong();
+
+    /**
+     * Get URL the gzipped resource is served at.
+     *
+     * @param host Host name the server is reachable at by the builds.
+     * @return null if the server is not available.
+     */
+    public @CheckForNull String url(String host, Resource resource) {
+        String key = resource.url.toExternalForm();
+        if ("file".equals(resource.url.getProtocol())) {
+            key = key(resource.asFile());
+        }
+        return url(host, key, resource.url);
+    }
+
+    /**
+     * Get URL the gzipped file is served at.
+     *
+     * @param host Host name the server is reachable at by the builds.
+     * @return null if the server is not available.
+     */
+    public @CheckForNull String url(String host, File file) {
+        try {
+            return url(host, key(file), file.toURI().toURL());
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static String key(File file) {
+        return file.getAbsolutePath() + '@' + file.lastModified() + '/' + file.length();
+    }
+
+    private synchronized @CheckForNull String url(String host, String key, URL source) {
+        if (!ensureRunning()) return null;
+
+        String hash = staged.get(key);
+        if (hash == null) {
+            try {
+                hash = stage(source);
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Failed to stage " + source, e);
+                return null;
+            }
+            staged.put(key, hash);
+        }
+        return "http://" + host + ":" + server.getLocalPort() + "/resources/" + hash;
+    }
+
+    private String stage(URL source) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError(e);
+        }
+
+        File tmp = File.createTempFile("staging", ".gz", dir);
+        try {
+            try (InputStream in = new DigestInputStream(source.openStream(), digest); OutputStream out = new GZIPOutputStream(new FileOutputStream(tmp))) {
+                IOUtils.copy(in, out);
+            }
+            String hash = Hex.encodeHexString(digest.digest());
+            File target = new File(dir, hash);
+            if (!target.exists()) { // Same content staged already for different source
+                Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+                LOGGER.fine("Staged " + source + " as " + hash);
+            }
+            return hash;
+        } finally {
+            Files.deleteIfExists(tmp.toPath());
+        }
+    }
+
+    private boolean ensureRunning() {
+        if (server != null) return true;
+        if (failed) return false;
+
+        try {
+            dir = Files.createTempDirectory("ath-resources").toFile();
+
+            UriHttpRequestHandlerMapper handlerMapper = new UriHttpRequestHandlerMapper();
+            handlerMapper.register("/resources/*", (HttpRequest request, HttpResponse response, HttpContext context) -> {
+                String hash = request.getRequestLine().getUri().replaceFirst("^/resources/", "");
+                File file = new File(dir, hash);
+                if (!hash.matches("[0-9a-f]+") || !file.isFile()) {
+                    response.setStatusCode(HttpStatus.SC_NOT_FOUND);
+                    return;
+                }
+                requests.incrementAndGet();
+                response.setStatusCode(HttpStatus.SC_OK);
+                response.setEntity(new FileEntity(file, ContentType.create("application/gzip")));
+            });
+
+            server = ServerBootstrap.bootstrap()
+                    .setListenerPort(PortLeases.get().next())
+                    .setHttpProcessor(HttpProcessorBuilder.create()
+                            .add(new ResponseServer("ResourceServer"))
+                            .add(new ResponseContent())
+                            .add(new RequestConnControl())
+                            .build()
+                    )
+                    .setHandlerMapper(handlerMapper)
+                    .setExceptionLogger((Exception x) -> {
+                        Level level = x instanceof ConnectionClosedException ? Level.FINE : Level.WARNING;
+                        LOGGER.log(level, "Exception thrown while serving request", x);
+                    })
+                    .create()
+            ;
+            server.start();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Cannot start resource server, resources will be embedded in builds", e);
+            server = null;
+            failed = true;
+            return false;
+        }
+
+        cleaner.addTask(this);
+        LOGGER.info("Serving resources on port " + server.getLocalPort());
+        return true;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (server == null) return;
+
+        LOGGER.info(String.format("Served %d requests for %d resources", requests, staged.size()));
+        server.shutdown(5, TimeUnit.SECONDS);
+        server = null;
+        FileUtils.deleteDirectory(dir);
+    }
+}
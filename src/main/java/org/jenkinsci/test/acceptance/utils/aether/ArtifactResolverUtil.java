@@ -25,12 +25,24 @@
 package org.jenkinsci.test.acceptance.utils.aether;
 
 import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import javax.inject.Inject;
+import javax.inject.Singleton;
 
+import org.apache.commons.lang.StringUtils;
 import org.apache.maven.settings.Settings;
 import org.apache.maven.settings.building.DefaultSettingsBuilderFactory;
 import org.apache.maven.settings.building.DefaultSettingsBuildingRequest;
@@ -38,8 +50,10 @@ import org.apache.maven.settings.building.SettingsBuilder;
 import org.apache.maven.settings.building.SettingsBuildingException;
 import org.eclipse.aether.RepositorySystem;
 import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.artifact.Artifact;
 import org.eclipse.aether.artifact.DefaultArtifact;
 import org.eclipse.aether.repository.Authentication;
+import org.eclipse.aether.repository.LocalRepository;
 import org.eclipse.aether.repository.Proxy;
 import org.eclipse.aether.repository.RemoteRepository;
 import org.eclipse.aether.repository.RemoteRepository.Builder;
@@ -52,14 +66,30 @@ import org.eclipse.aether.util.repository.AuthenticationBuilder;
  * Helper class to resolve artifacts with Aether
  * with http proxy support
  *
+ * The remote repository and the proxy settings are read once and the repository session is shared by all the
+ * resolutions. Batches of artifacts are resolved in parallel, by
+ * <tt>-Dorg.jenkinsci.test.acceptance.utils.aether.ArtifactResolverUtil.parallelism</tt> threads (4 by default).
+ * Resolutions since the last {@link #clearReport()} are kept for diagnostics, up to {@value #REPORT_SIZE} most recent.
+ *
  * @author scott.hebert@ericsson.com
  */
+@Singleton
 public class ArtifactResolverUtil {
 
     private static final Logger LOGGER = Logger.getLogger(ArtifactResolverUtil.class.getName());
+
+    private static final int PARALLELISM = Integer.getInteger(ArtifactResolverUtil.class.getName() + ".parallelism", 4);
+
+    /*package*/ static final int REPORT_SIZE = 500;
+
     private RepositorySystem repoSystem;
     private RepositorySystemSession repoSystemSession;
 
+    private RemoteRepository repository;
+    private ExecutorService executor;
+
+    private final Deque<Resolution> report = new ArrayDeque<>();
+
     @Inject
     public ArtifactResolverUtil(RepositorySystem rs, RepositorySystemSession rss) {
         repoSystem = rs;
@@ -72,6 +102,78 @@ public class ArtifactResolverUtil {
      * @return artifact resolution result
      */
     public ArtifactResult resolve(DefaultArtifact artifact) {
+        return resolveArtifact(artifact);
+    }
+
+    /**
+     * Resolve the artifacts in parallel.
+     *
+     * @param artifacts The artifacts to be resolved
+     *
+     * @return artifact resolution results in the order of the artifacts
+     */
+    public List<ArtifactResult> resolveAll(List<? extends Artifact> artifacts) {
+        long start = System.currentTimeMillis();
+        List<Future<ArtifactResult>> futures = new ArrayList<>(artifacts.size());
+        for (final Artifact artifact : artifacts) {
+            futures.add(executor().submit(() -> resolveArtifact(artifact)));
+        }
+
+        List<ArtifactResult> results = new ArrayList<>(artifacts.size());
+        for (Future<ArtifactResult> f : futures) {
+            try {
+                results.add(f.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted resolving " + artifacts, e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new RuntimeException(e.getCause());
+            }
+        }
+
+        int cached = 0;
+        for (ArtifactResult r : results) {
+            if (isCached(r)) cached++;
+        }
+        LOGGER.info(String.format("Resolved %d artifacts (%d cached) in %d ms", results.size(), cached, System.currentTimeMillis() - start));
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine("Resolutions so far:\n" + StringUtils.join(getReport(), '\n'));
+        }
+        return results;
+    }
+
+    private ArtifactResult resolveArtifact(Artifact artifact) {
+        long start = System.currentTimeMillis();
+        ArtifactResult r;
+        try {
+            r = repoSystem.resolveArtifact(repoSystemSession,new ArtifactRequest(artifact, Arrays.asList(repository()), null));
+        } catch (ArtifactResolutionException e) {
+            throw new RuntimeException("Could not resolve " + artifact + " from Maven repository",e);
+        }
+        Resolution resolution = new Resolution(artifact.toString(), System.currentTimeMillis() - start, isCached(r));
+        synchronized (report) {
+            if (report.size() == REPORT_SIZE) {
+                report.removeFirst();
+            }
+            report.addLast(resolution);
+        }
+        LOGGER.config("Resolved " + resolution);
+        return r;
+    }
+
+    /**
+     * Whether the artifact was found in local repository.
+     */
+    private static boolean isCached(ArtifactResult r) {
+        return r.getRepository() instanceof LocalRepository;
+    }
+
+    private synchronized RemoteRepository repository() {
+        if (repository != null) return repository;
+
         Builder repoBuilder = new RemoteRepository.Builder(
                 "repo.jenkins-ci.org", "default",
                 "http://repo.jenkins-ci.org/public/");
@@ -100,15 +202,61 @@ public class ArtifactResolverUtil {
             }
         }
 
-        RemoteRepository repo = repoBuilder.build();
-        ArtifactResult r;
-        try {
-            r = repoSystem.resolveArtifact(repoSystemSession,new ArtifactRequest(artifact, Arrays.asList(repo), null));
-        } catch (ArtifactResolutionException e) {
-            throw new RuntimeException("Could not resolve " + artifact + " from Maven repository",e);
+        repository = repoBuilder.build();
+        return repository;
+    }
+
+    private synchronized ExecutorService executor() {
+        if (executor == null) {
+            final AtomicInteger threads = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(PARALLELISM, new ThreadFactory() {
+                @Override public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "ArtifactResolver-" + threads.incrementAndGet());
+                    t.setDaemon(true); // Idle threads do not hold the JVM
+                    return t;
+                }
+            });
+        }
+        return executor;
+    }
+
+    /**
+     * Artifacts resolved since the report was cleared, how long it took and whether they were already present in local
+     * repository.
+     */
+    public List<Resolution> getReport() {
+        synchronized (report) {
+            return new ArrayList<>(report);
+        }
+    }
+
+    /**
+     * Forget the resolutions reported so far, so the report covers what comes next, like a single test.
+     */
+    public void clearReport() {
+        synchronized (report) {
+            report.clear();
+        }
+    }
+
+    /**
+     * Resolution of single artifact.
+     */
+    public static final class Resolution {
+        public final String artifact;
+        public final long millis;
+        public final boolean cached;
+
+        private Resolution(String artifact, long millis, boolean cached) {
+            this.artifact = artifact;
+            this.millis = millis;
+            this.cached = cached;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s %d ms%s", artifact, millis, cached ? " (cached)" : "");
         }
-        LOGGER.config("Found " + r);
-        return r;
     }
 
     /**
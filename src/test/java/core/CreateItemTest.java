@@ -2,12 +2,16 @@ package core;
 
 import org.jenkinsci.test.acceptance.junit.AbstractJUnitTest;
 import org.jenkinsci.test.acceptance.junit.Since;
+import org.jenkinsci.test.acceptance.junit.WithPlugins;
+import org.jenkinsci.test.acceptance.po.Folder;
 import org.jenkinsci.test.acceptance.po.FreeStyleJob;
+import org.jenkinsci.test.acceptance.po.MatrixProject;
 import org.junit.Test;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebElement;
 
 import static org.jenkinsci.test.acceptance.Matchers.hasContent;
+import static org.jenkinsci.test.acceptance.Matchers.pageObjectExists;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertThat;
@@ -49,4 +53,37 @@ public class CreateItemTest extends AbstractJUnitTest {
         okButtonElement.click();
         assertThat(driver, hasContent(JOB_CREATION_ERROR_MSG));
     }
+
+    @Test
+    public void create_freestyle_via_api() {
+        FreeStyleJob job = jenkins.jobs.createViaApi(FreeStyleJob.class, JOB_NAME);
+        assertThat(job, pageObjectExists());
+
+        job.configure();
+        job.addShellStep("true");
+        job.save();
+        job.startBuild().shouldSucceed();
+    }
+
+    @Test
+    @WithPlugins("matrix-project")
+    public void create_matrix_via_api() {
+        MatrixProject job = jenkins.jobs.createViaApi(MatrixProject.class, JOB_NAME);
+        assertThat(job, pageObjectExists());
+
+        job.configure();
+        job.save();
+        job.startBuild().shouldSucceed();
+    }
+
+    @Test
+    @WithPlugins("cloudbees-folder")
+    public void create_folder_via_api() {
+        Folder folder = jenkins.jobs.createViaApi(Folder.class, JOB_NAME);
+        assertThat(folder, pageObjectExists());
+
+        FreeStyleJob job = folder.getJobs().createViaApi(FreeStyleJob.class, "nested");
+        assertThat(job, pageObjectExists());
+        job.startBuild().shouldSucceed();
+    }
 }
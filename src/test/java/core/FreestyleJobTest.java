@@ -8,6 +8,7 @@ import org.jenkinsci.test.acceptance.po.Artifact;
 import org.jenkinsci.test.acceptance.po.ArtifactArchiver;
 import org.jenkinsci.test.acceptance.po.Build;
 import org.jenkinsci.test.acceptance.po.BuildWithParameters;
+import org.jenkinsci.test.acceptance.po.ConsoleStream;
 import org.jenkinsci.test.acceptance.po.FreeStyleJob;
 import org.jenkinsci.test.acceptance.po.Job;
 import org.jenkinsci.test.acceptance.po.ListView;
@@ -41,6 +42,7 @@ import static org.jenkinsci.test.acceptance.Matchers.hasContent;
 import static org.jenkinsci.test.acceptance.Matchers.pageObjectDoesNotExist;
 import static org.jenkinsci.test.acceptance.Matchers.pageObjectExists;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class FreestyleJobTest extends AbstractJUnitTest {
     @Test
@@ -338,6 +340,20 @@ public class FreestyleJobTest extends AbstractJUnitTest {
         assertThat(jxml, is(kxml));
     }
 
+    @Test
+    public void wait_for_consecutive_last_builds() {
+        FreeStyleJob j = jenkins.jobs.create(FreeStyleJob.class);
+        j.startBuild().waitUntilFinished();
+        assertThat(j.getLastBuild().waitUntilFinished().getResult(), equalTo("SUCCESS"));
+
+        j.configure(() -> j.addShellStep("sleep 5; exit 1"));
+        j.startBuild();
+
+        Build last = j.getLastBuild().waitUntilFinished();
+        assertThat(last.getNumber(), equalTo(2));
+        assertThat(last.getResult(), equalTo("FAILURE"));
+    }
+
     // Workaround for https://support.mozilla.org/en-US/questions/1193967
     private String getConfigXml(FreeStyleJob j) {
         try {
@@ -347,4 +363,33 @@ public class FreestyleJobTest extends AbstractJUnitTest {
             throw new Error(e);
         }
     }
+
+    @Test
+    public void stream_console() {
+        FreeStyleJob j = jenkins.jobs.create(FreeStyleJob.class);
+        j.configure();
+        j.addShellStep("echo first\nsleep 5\necho second");
+        j.save();
+
+        Build b = j.scheduleBuild();
+        ConsoleStream console = b.streamConsole();
+        assertThat(console.waitFor(Pattern.compile("^first$"), 60), equalTo("first"));
+        assertThat(console.waitUntilFinished(60).getMatch(Pattern.compile("^second$")), equalTo("second"));
+
+        // Asked for once the whole log was read, so read again from the beginning
+        long offset = console.getOffset();
+        assertThat(console.contains(Pattern.compile("^\\+ echo first$"), 60), is(true));
+        assertThat(console.getOffset(), equalTo(offset));
+
+        // Matched line by line
+        assertThat(console.contains(Pattern.compile("first.*second", Pattern.DOTALL), 60), is(false));
+        assertThat(b.getConsoleText(), containsRegexp("first.*second", Pattern.DOTALL));
+
+        try {
+            console.waitFor(Pattern.compile("^third$"), 60);
+            fail("Finished build matched");
+        } catch (NoSuchElementException e) {
+            assertThat(e.getMessage(), containsString("has finished without printing"));
+        }
+    }
 }
@@ -8,7 +8,11 @@ import org.jenkinsci.test.acceptance.slave.SlaveController;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
+import java.util.Arrays;
+import java.util.List;
+
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.MatcherAssert.assertThat;
 
 public class ScriptTest extends AbstractJUnitTest {
@@ -24,4 +28,20 @@ public class ScriptTest extends AbstractJUnitTest {
         output = s.runScript("println 6 * 7");
         assertThat(output, is("42"));
     }
+
+    @Test
+    public void execute_script_in_console() throws Exception {
+        String output = jenkins.runScriptInConsole("println Jenkins.instance.displayName;", 30);
+        assertThat(output, is("Jenkins"));
+    }
+
+    @Test
+    public void execute_scripts_in_batch() throws Exception {
+        List<String> output = jenkins.runScripts(Arrays.asList(
+                "println Jenkins.instance.displayName;",
+                "6 * 7",
+                "def nothing = 'printed'"
+        ), 30);
+        assertThat(output, contains("Jenkins", "42", null));
+    }
 }
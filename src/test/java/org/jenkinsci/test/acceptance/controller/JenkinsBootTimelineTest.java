@@ -0,0 +1,42 @@
+package org.jenkinsci.test.acceptance.controller;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+public class JenkinsBootTimelineTest {
+
+    @Test
+    public void phases() throws Exception {
+        JenkinsBootTimeline timeline = new JenkinsBootTimeline(1000);
+        timeline.processLine("Running from: /tmp/jenkins.war", 1100);
+        timeline.processLine("2018-10-10 10:10:10.100+0000 [id=20]\tINFO\tjenkins.InitReactorRunner$1#onAttained: Started initialization", 3000);
+        timeline.processLine("INFO: Listed all plugins", 3500);
+        timeline.processLine("INFO: Prepared all plugins", 5000);
+        timeline.processLine("INFO: Started all plugins", 9000);
+        timeline.processLine("INFO: Completed initialization", 9500);
+        timeline.ready("log", 9600);
+
+        // Restart
+        timeline.processLine("INFO: Started initialization", 20000);
+
+        assertThat(timeline.getAttained("Started initialization"), equalTo(2000L));
+        assertThat(timeline.getAttained("Loaded all jobs"), nullValue());
+
+        Map<String, Long> phases = timeline.getPhases();
+        assertThat(phases.keySet(), contains(
+                "Started initialization", "Listed all plugins", "Prepared all plugins", "Started all plugins",
+                "Completed initialization", "Ready"
+        ));
+        assertThat(phases.get("Started all plugins"), equalTo(4000L));
+        assertThat(phases.get("Ready"), equalTo(1100L));
+
+        assertThat(timeline.toJson().getJSONArray("phases").length(), equalTo(5));
+        assertThat(timeline.toJson().getString("readySignal"), equalTo("log"));
+    }
+}
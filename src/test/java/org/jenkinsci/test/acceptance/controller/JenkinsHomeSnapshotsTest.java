@@ -0,0 +1,67 @@
+package org.jenkinsci.test.acceptance.controller;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.commons.io.FileUtils;
+import org.jenkinsci.test.acceptance.update_center.PluginSpec;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+
+public class JenkinsHomeSnapshotsTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void keyReflectsWarAndPlugins() throws Exception {
+        JenkinsHomeSnapshots snapshots = new JenkinsHomeSnapshots(tmp.newFolder("cache"));
+        File war = tmp.newFile("jenkins.war");
+        FileUtils.write(war, "war", "UTF-8");
+        File home = tmp.newFolder("home");
+
+        String key = snapshots.key(war, home, Arrays.asList(new PluginSpec("git"), new PluginSpec("ant@1.2")));
+        assertThat(snapshots.key(war, home, Arrays.asList(new PluginSpec("ant@1.2"), new PluginSpec("git"))), equalTo(key));
+        assertThat(snapshots.key(war, home, Collections.singletonList(new PluginSpec("git"))), not(equalTo(key)));
+
+        FileUtils.write(new File(home, "plugins/given.jpi"), "plugin", "UTF-8");
+        assertThat(snapshots.key(war, home, Arrays.asList(new PluginSpec("git"), new PluginSpec("ant@1.2"))), not(equalTo(key)));
+    }
+
+    @Test
+    public void captureAndRestore() throws Exception {
+        JenkinsHomeSnapshots snapshots = new JenkinsHomeSnapshots(tmp.newFolder("cache"));
+        File home = tmp.newFolder("home");
+        FileUtils.write(new File(home, "config.xml"), "<hudson/>", "UTF-8");
+        FileUtils.write(new File(home, "plugins/git.jpi"), "plugin", "UTF-8");
+        FileUtils.write(new File(home, "plugins/git/META-INF/MANIFEST.MF"), "Manifest-Version: 1.0", "UTF-8");
+        FileUtils.write(new File(home, "plugins/ant.jpi.tmp"), "partial", "UTF-8");
+        FileUtils.write(new File(home, "logs/tasks/Fingerprint cleanup.log"), "log", "UTF-8");
+
+        File other = tmp.newFolder("other");
+        assertThat(snapshots.restore("key", other), equalTo(false));
+
+        snapshots.capture("key", home);
+        assertThat(snapshots.restore("key", other), equalTo(true));
+        assertThat(new File(other, "plugins/git.jpi").isFile(), equalTo(true));
+        assertThat(new File(other, "plugins/git/META-INF/MANIFEST.MF").isFile(), equalTo(true));
+        // Written by running Jenkins so possibly torn
+        assertThat(new File(other, "config.xml").exists(), equalTo(false));
+        assertThat(new File(other, "logs").exists(), equalTo(false));
+        assertThat(new File(other, "plugins/ant.jpi.tmp").exists(), equalTo(false));
+    }
+
+    @Test
+    public void disabled() throws Exception {
+        JenkinsHomeSnapshots snapshots = new JenkinsHomeSnapshots(null);
+        File home = tmp.newFolder("home");
+        snapshots.capture("key", home);
+        assertThat(snapshots.restore("key", home), equalTo(false));
+    }
+}
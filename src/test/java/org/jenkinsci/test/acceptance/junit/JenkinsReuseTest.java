@@ -0,0 +1,123 @@
+package org.jenkinsci.test.acceptance.junit;
+
+import org.jenkinsci.test.acceptance.controller.JenkinsController;
+import org.jenkinsci.test.acceptance.guice.WorldCleaner;
+import org.jenkinsci.test.acceptance.po.Jenkins;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.Description;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class JenkinsReuseTest {
+
+    private JenkinsReuse reuse;
+    private Jenkins jenkins;
+
+    @Before
+    public void setUp() {
+        reuse = new JenkinsReuse(new WorldCleaner());
+        jenkins = mock(Jenkins.class);
+        when(jenkins.runScript(JenkinsReuse.CAPTURE)).thenReturn("captured");
+        when(jenkins.runScript(JenkinsReuse.RESET, 120)).thenReturn("reset");
+    }
+
+    @Test
+    public void keyOf() throws Exception {
+        assertThat(JenkinsReuse.keyOf(describe(NotReused.class, "test")), nullValue());
+
+        String key = JenkinsReuse.keyOf(describe(PerClass.class, "test"));
+        assertThat(key, equalTo(PerClass.class.getName() + "[git, matrix-project@1.4]"));
+        assertThat(JenkinsReuse.keyOf(describe(PerClass.class, "other")), equalTo(key));
+
+        assertThat(JenkinsReuse.keyOf(describe(PerPlugins.class, "test")), equalTo("[git, matrix-project@1.4]"));
+        assertThat(JenkinsReuse.keyOf(describe(PerPlugins.class, "additional")), equalTo("[git, matrix-project@1.4, ssh-slaves]"));
+        assertThat(JenkinsReuse.keyOf(describe(SamePlugins.class, "test")), equalTo(JenkinsReuse.keyOf(describe(PerPlugins.class, "test"))));
+    }
+
+    @Test
+    public void reuseForSameKey() throws Exception {
+        JenkinsController c = mock(JenkinsController.class);
+        reuse.retain(describe(PerPlugins.class, "test"), c, jenkins);
+
+        verify(c).setRetained(true);
+        assertThat(reuse.get(describe(SamePlugins.class, "test")), sameInstance(c));
+        assertThat(reuse.reset(c, jenkins), equalTo(true));
+    }
+
+    @Test
+    public void releaseForDifferentKey() throws Exception {
+        JenkinsController c = mock(JenkinsController.class);
+        reuse.retain(describe(PerPlugins.class, "test"), c, jenkins);
+
+        assertThat(reuse.get(describe(PerPlugins.class, "additional")), nullValue());
+        verify(c).setRetained(false);
+        verify(c).tearDown();
+        assertThat(reuse.get(describe(PerPlugins.class, "test")), nullValue());
+    }
+
+    @Test
+    public void doNotRetainWithoutBaseline() throws Exception {
+        when(jenkins.runScript(JenkinsReuse.CAPTURE)).thenReturn("groovy.lang.MissingPropertyException");
+        JenkinsController c = mock(JenkinsController.class);
+        reuse.retain(describe(PerPlugins.class, "test"), c, jenkins);
+
+        verify(c, never()).setRetained(true);
+        assertThat(reuse.get(describe(PerPlugins.class, "test")), nullValue());
+        assertThat(reuse.reset(c, jenkins), equalTo(false));
+    }
+
+    @Test
+    public void resetOnlyRetained() throws Exception {
+        JenkinsController retained = mock(JenkinsController.class);
+        reuse.retain(describe(PerPlugins.class, "test"), retained, jenkins);
+
+        JenkinsController other = mock(JenkinsController.class);
+        assertThat(reuse.reset(other, jenkins), equalTo(false));
+        verify(jenkins, never()).runScript(JenkinsReuse.RESET, 120);
+
+        when(jenkins.runScript(JenkinsReuse.RESET, 120)).thenReturn("java.lang.IllegalStateException");
+        assertThat(reuse.reset(retained, jenkins), equalTo(false));
+
+        reuse.discard(retained);
+        verify(retained).setRetained(false);
+        assertThat(reuse.get(describe(PerPlugins.class, "test")), not(sameInstance(retained)));
+    }
+
+    private static Description describe(Class<?> testClass, String method) throws Exception {
+        return Description.createTestDescription(testClass, method, testClass.getMethod(method).getAnnotations());
+    }
+
+    public static class NotReused {
+        public void test() {}
+    }
+
+    @ReuseJenkins
+    @WithPlugins({"matrix-project@1.4", "git"})
+    public static class PerClass {
+        public void test() {}
+        public void other() {}
+    }
+
+    @ReuseJenkins(ReuseJenkins.Scope.PLUGINS)
+    @WithPlugins({"matrix-project@1.4", "git"})
+    public static class PerPlugins {
+        public void test() {}
+        @WithPlugins("ssh-slaves")
+        public void additional() {}
+    }
+
+    @ReuseJenkins(ReuseJenkins.Scope.PLUGINS)
+    @WithPlugins({"git", "matrix-project@1.4"})
+    public static class SamePlugins {
+        public void test() {}
+    }
+}
@@ -0,0 +1,122 @@
+package org.jenkinsci.test.acceptance.po;
+
+import java.io.FileNotFoundException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.impl.bootstrap.HttpServer;
+import org.apache.http.impl.bootstrap.ServerBootstrap;
+import org.apache.http.protocol.HttpContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.WebDriver;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ApiClientTest {
+
+    private final WebDriver driver = mock(WebDriver.class, RETURNS_DEEP_STUBS);
+    private final ApiClient client = new ApiClient();
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(ApiClient.browserlessThreads("worker"));
+    private HttpServer server;
+
+    @Before
+    public void setUp() throws Exception {
+        when(driver.manage().getCookies()).thenReturn(Collections.<Cookie>emptySet());
+        Guice.createInjector(new AbstractModule() {
+            @Override protected void configure() {
+                bind(WebDriver.class).toInstance(driver);
+            }
+        }).injectMembers(client);
+
+        server = ServerBootstrap.bootstrap().registerHandler("*", (HttpRequest request, HttpResponse response, HttpContext context) -> {
+            response.setStatusCode(request.getRequestLine().getUri().startsWith("/missing") ? HttpStatus.SC_NOT_FOUND : HttpStatus.SC_FORBIDDEN);
+        }).create();
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        worker.shutdownNow();
+        client.close();
+        server.shutdown(1, TimeUnit.SECONDS);
+    }
+
+    private Callable<Object> read() throws Exception {
+        return read("/api/json");
+    }
+
+    private Callable<Object> read(String path) throws Exception {
+        final URL url = new URL("http://localhost:" + server.getLocalPort() + path);
+        return new Callable<Object>() {
+            @Override public Object call() throws Exception {
+                return client.get(url, rsp -> null);
+            }
+        };
+    }
+
+    private Throwable failureOnWorker() throws Exception {
+        try {
+            worker.submit(read()).get();
+            fail("Access not denied");
+            return null;
+        } catch (ExecutionException e) {
+            return e.getCause();
+        }
+    }
+
+    @Test
+    public void workerDoesNotEstablishSession() throws Exception {
+        assertThat(failureOnWorker().getMessage(), containsString("Unable to read the browser cookies"));
+        verify(driver.manage(), never()).getCookies();
+    }
+
+    @Test
+    public void workerDoesNotRefreshSession() throws Exception {
+        try {
+            read().call();
+            fail("Access not denied");
+        } catch (ApiClient.StatusException e) {
+            assertThat(e.getStatus(), equalTo(HttpStatus.SC_FORBIDDEN));
+        }
+
+        assertThat(failureOnWorker(), instanceOf(ApiClient.StatusException.class));
+        verify(driver.manage(), times(1)).getCookies(); // By the test thread only
+    }
+
+    @Test
+    public void missingPageRefreshesSessionOnce() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            try {
+                read("/missing/api/json").call();
+                fail("Page not missing");
+            } catch (FileNotFoundException e) {
+                // Expected
+            }
+        }
+        verify(driver.manage(), times(2)).getCookies(); // Established, then refreshed once for the 404s
+    }
+}
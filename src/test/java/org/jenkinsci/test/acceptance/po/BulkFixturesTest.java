@@ -0,0 +1,74 @@
+package org.jenkinsci.test.acceptance.po;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.fail;
+
+public class BulkFixturesTest {
+
+    private final BulkFixtures fixtures = new BulkFixtures();
+
+    @After
+    public void close() {
+        fixtures.close();
+    }
+
+    private static List<String> names(int count) {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            names.add("thing-" + i);
+        }
+        return names;
+    }
+
+    @Test
+    public void createOnWorkers() {
+        final List<String> threads = new ArrayList<>();
+        fixtures.run("thing", names(20), new BulkFixtures.Creation() {
+            @Override public void create(String name) {
+                synchronized (threads) {
+                    threads.add(Thread.currentThread().getName());
+                }
+            }
+        });
+
+        assertThat(threads.size(), equalTo(20));
+        assertThat(threads.get(0), equalTo(Thread.currentThread().getName()));
+        for (String thread : threads.subList(1, threads.size())) {
+            assertThat(thread, startsWith("BulkFixtures-"));
+        }
+    }
+
+    @Test
+    public void cancelAfterFirstFailure() {
+        final AtomicInteger started = new AtomicInteger();
+        long start = System.currentTimeMillis();
+        try {
+            fixtures.run("thing", names(100), new BulkFixtures.Creation() {
+                @Override public void create(String name) throws Exception {
+                    started.incrementAndGet();
+                    if (name.equals("thing-0")) return;
+                    if (name.equals("thing-1")) throw new IOException("failed");
+                    Thread.sleep(60000);
+                }
+            });
+            fail("Failure not reported");
+        } catch (AssertionError e) {
+            assertThat(e.getCause().getMessage(), equalTo("failed"));
+        }
+
+        // Neither waiting for the running creations nor starting the queued ones
+        assertThat(System.currentTimeMillis() - start, lessThan(30000L));
+        assertThat(started.get(), lessThan(100));
+    }
+}
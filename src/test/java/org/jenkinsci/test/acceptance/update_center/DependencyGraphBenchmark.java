@@ -0,0 +1,78 @@
+package org.jenkinsci.test.acceptance.update_center;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import hudson.util.VersionNumber;
+
+/**
+ * Measures planning of plugin installation over real update center metadata.
+ *
+ * <p>
+ * Not run as part of the build. Run with the update center file as the argument, like the one cached by
+ * {@link CachedUpdateCenterMetadataLoader} in the temporary directory:
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=org.jenkinsci.test.acceptance.update_center.DependencyGraphBenchmark \
+ *     -Dexec.args=/tmp/update-center-2.150.jsonp
+ * </pre>
+ */
+public class DependencyGraphBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 1) {
+            System.err.println("Usage: DependencyGraphBenchmark <update-center.json>");
+            System.exit(1);
+        }
+
+        long start = System.nanoTime();
+        UpdateCenterMetadata ucm = UpdateCenterMetadata.parse(new File(args[0]));
+        System.out.printf("Parsed %d plugins in %d ms%n", ucm.plugins.size(), millis(start));
+
+        VersionNumber core = newestCore(ucm);
+        Map<String, VersionNumber> installed = Collections.emptyMap();
+
+        List<List<PluginSpec>> sets = new ArrayList<>();
+        for (String name : ucm.plugins.keySet()) {
+            sets.add(Collections.singletonList(new PluginSpec(name)));
+        }
+
+        for (int round = 0; round < ROUNDS; round++) {
+            start = System.nanoTime();
+            int planned = 0;
+            int failed = 0;
+            for (List<PluginSpec> set : sets) {
+                try {
+                    planned += ucm.transitiveDependenciesOf(core, installed, set).size();
+                } catch (RuntimeException e) { // Missing dependencies and such
+                    failed++;
+                }
+            }
+            // The first round builds the graph and the closures, the subsequent ones are memoized
+            System.out.printf(
+                    "Round %d: planned %d plugin sets (%d plugins, %d unresolvable) in %d ms%n",
+                    round, sets.size(), planned, failed, millis(start)
+            );
+        }
+    }
+
+    private static VersionNumber newestCore(UpdateCenterMetadata ucm) {
+        VersionNumber newest = new VersionNumber("1");
+        for (PluginMetadata p : ucm.plugins.values()) {
+            if (p.requiredCore().isNewerThan(newest)) {
+                newest = p.requiredCore();
+            }
+        }
+        return newest;
+    }
+
+    private static long millis(long start) {
+        return (System.nanoTime() - start) / 1000000;
+    }
+}
@@ -0,0 +1,123 @@
+package org.jenkinsci.test.acceptance.update_center;
+
+import java.io.File;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.bootstrap.HttpServer;
+import org.apache.http.impl.bootstrap.ServerBootstrap;
+import org.apache.http.protocol.HttpContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class DownloadCacheTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger notModified = new AtomicInteger();
+    private volatile String content = "content";
+
+    @Before
+    public void startServer() throws Exception {
+        server = ServerBootstrap.bootstrap().registerHandler("*", (HttpRequest request, HttpResponse response, HttpContext context) -> {
+            requests.incrementAndGet();
+            String etag = '"' + content + '"';
+            if (request.getFirstHeader("If-None-Match") != null && etag.equals(request.getFirstHeader("If-None-Match").getValue())) {
+                notModified.incrementAndGet();
+                response.setStatusCode(HttpStatus.SC_NOT_MODIFIED);
+                return;
+            }
+            if (request.getRequestLine().getUri().contains("missing")) {
+                response.setStatusCode(HttpStatus.SC_NOT_FOUND);
+                return;
+            }
+            response.setStatusCode(HttpStatus.SC_OK);
+            response.setHeader("ETag", etag);
+            response.setEntity(new StringEntity(content, ContentType.create("application/json", "UTF-8")));
+        }).create();
+        server.start();
+    }
+
+    @After
+    public void stopServer() {
+        server.shutdown(1, TimeUnit.SECONDS);
+    }
+
+    private URL url(String path) throws Exception {
+        return new URL("http://localhost:" + server.getLocalPort() + "/" + path);
+    }
+
+    private static String read(DownloadCache.Entry entry) throws Exception {
+        return FileUtils.readFileToString(entry.file, "UTF-8");
+    }
+
+    @Test
+    public void serveFresh() throws Exception {
+        DownloadCache cache = new DownloadCache(tmp.newFolder(), Long.MAX_VALUE, TimeUnit.HOURS.toMillis(1));
+
+        DownloadCache.Entry entry = cache.get(url("a.json"));
+        assertThat(read(entry), equalTo("content"));
+        assertThat(entry.contentType, equalTo("application/json; charset=UTF-8"));
+
+        content = "changed";
+        assertThat(read(cache.get(url("a.json"))), equalTo("content"));
+        assertThat(requests.get(), equalTo(1));
+    }
+
+    @Test
+    public void revalidateStale() throws Exception {
+        DownloadCache cache = new DownloadCache(tmp.newFolder(), Long.MAX_VALUE, 0);
+
+        assertThat(read(cache.get(url("a.json"))), equalTo("content"));
+        assertThat(read(cache.get(url("a.json"))), equalTo("content"));
+        assertThat(notModified.get(), equalTo(1));
+
+        content = "changed";
+        assertThat(read(cache.get(url("a.json"))), equalTo("changed"));
+        assertThat(requests.get(), equalTo(3));
+    }
+
+    @Test
+    public void shareContent() throws Exception {
+        File dir = tmp.newFolder();
+        DownloadCache cache = new DownloadCache(dir, Long.MAX_VALUE, TimeUnit.HOURS.toMillis(1));
+
+        assertThat(cache.get(url("a.json")).file, equalTo(cache.get(url("b.json")).file));
+        assertThat(new File(dir, "blobs").list().length, equalTo(1));
+    }
+
+    @Test
+    public void evictLeastRecentlyUsed() throws Exception {
+        DownloadCache cache = new DownloadCache(tmp.newFolder(), 10, TimeUnit.HOURS.toMillis(1));
+
+        File first = cache.get(url("a.json")).file;
+        content = "changed";
+        File second = cache.get(url("b.json")).file;
+        assertThat(first.exists(), equalTo(false));
+        assertThat(second.exists(), equalTo(true));
+
+        // Evicted content is downloaded again
+        assertThat(read(cache.get(url("a.json"))), equalTo("changed"));
+    }
+
+    @Test(expected = java.io.IOException.class)
+    public void missing() throws Exception {
+        new DownloadCache(tmp.newFolder(), Long.MAX_VALUE, TimeUnit.HOURS.toMillis(1)).get(url("missing.json"));
+    }
+}
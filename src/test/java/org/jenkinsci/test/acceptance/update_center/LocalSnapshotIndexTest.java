@@ -0,0 +1,91 @@
+package org.jenkinsci.test.acceptance.update_center;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+
+public class LocalSnapshotIndexTest {
+
+    private static final Collection<String> PUBLISHED = Arrays.asList("org.jenkins-ci.plugins:git", "org.jenkins-ci.plugins:remote");
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private File hpi(File repo, String artifactId, String version) throws Exception {
+        File hpi = new File(repo, "org/jenkins-ci/plugins/" + artifactId + "/" + version + "/" + artifactId + "-" + version + ".hpi");
+        hpi.getParentFile().mkdirs();
+        hpi.createNewFile();
+        return hpi;
+    }
+
+    private File metadata(File repo, String artifactId, String kind, String... versions) throws Exception {
+        StringBuilder sb = new StringBuilder("<metadata><versioning><versions>");
+        for (String version : versions) {
+            sb.append("<version>").append(version).append("</version>");
+        }
+        sb.append("</versions></versioning></metadata>");
+        File metadata = new File(repo, "org/jenkins-ci/plugins/" + artifactId + "/maven-metadata-" + kind + ".xml");
+        FileUtils.write(metadata, sb.toString(), "UTF-8");
+        return metadata;
+    }
+
+    @Test
+    public void indexLocalSnapshots() throws Exception {
+        File repo = tmp.newFolder();
+        File hpi = hpi(repo, "git", "4.0-SNAPSHOT");
+        hpi(repo, "git", "3.9");
+        hpi(repo, "git", "5.0-SNAPSHOT"); // Downloaded
+        metadata(repo, "git", "local", "3.9", "4.0-SNAPSHOT");
+        metadata(repo, "git", "central", "5.0-SNAPSHOT");
+        hpi(repo, "remote", "1.0-SNAPSHOT");
+        metadata(repo, "remote", "central", "1.0-SNAPSHOT");
+        hpi(repo, "unpublished", "1.0-SNAPSHOT");
+        metadata(repo, "unpublished", "local", "1.0-SNAPSHOT");
+
+        LocalSnapshotIndex index = LocalSnapshotIndex.scan(repo, PUBLISHED);
+
+        List<LocalSnapshotIndex.Snapshot> git = index.get("org.jenkins-ci.plugins", "git");
+        assertThat(git, hasSize(1));
+        assertThat(git.get(0).version, equalTo("4.0-SNAPSHOT"));
+        assertThat(git.get(0).hpi, equalTo(hpi));
+        assertThat(index.get("org.jenkins-ci.plugins", "remote"), empty());
+        assertThat(index.get("org.jenkins-ci.plugins", "unpublished"), empty());
+        assertThat(index.get("org.jenkins-ci.plugins", "missing"), empty());
+        assertThat(index.get("io.jenkins.plugins", "git"), empty());
+    }
+
+    @Test
+    public void rescanChanged() throws Exception {
+        File repo = tmp.newFolder();
+        hpi(repo, "git", "4.0-SNAPSHOT");
+        metadata(repo, "git", "local", "4.0-SNAPSHOT");
+        assertThat(LocalSnapshotIndex.scan(repo, PUBLISHED).get("org.jenkins-ci.plugins", "git"), hasSize(1));
+
+        hpi(repo, "git", "4.1-SNAPSHOT");
+        File metadata = metadata(repo, "git", "local", "4.0-SNAPSHOT", "4.1-SNAPSHOT");
+        // Make sure the change is visible even with coarse modification time
+        metadata.setLastModified(metadata.lastModified() + 2000);
+
+        assertThat(LocalSnapshotIndex.scan(repo, PUBLISHED).get("org.jenkins-ci.plugins", "git"), hasSize(2));
+    }
+
+    @Test
+    public void malformedMetadata() throws Exception {
+        File repo = tmp.newFolder();
+        hpi(repo, "git", "4.0-SNAPSHOT");
+        FileUtils.write(new File(repo, "org/jenkins-ci/plugins/git/maven-metadata-local.xml"), "<metadata>", "UTF-8");
+
+        assertThat(LocalSnapshotIndex.scan(repo, PUBLISHED).get("org.jenkins-ci.plugins", "git"), empty());
+    }
+}
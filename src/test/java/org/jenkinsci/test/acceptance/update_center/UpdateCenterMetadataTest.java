@@ -7,26 +7,38 @@ import static org.mockito.Mockito.when;
 
 import hudson.util.VersionNumber;
 import org.hamcrest.Matchers;
+import org.apache.commons.io.FileUtils;
 import org.jenkinsci.test.acceptance.po.Jenkins;
+import org.jenkinsci.test.acceptance.po.PluginManager;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author ogondza.
  */
 public class UpdateCenterMetadataTest {
 
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
     public static final List<Dependency> NO_DEPS = Collections.emptyList();
 
     private Jenkins jenkins = mock(Jenkins.class);
     {
         when(jenkins.getVersion()).thenReturn(new VersionNumber("2"));
         when(jenkins.getPlugin(any(String.class))).thenThrow(new IllegalArgumentException("Not installed"));
+        PluginManager pm = mock(PluginManager.class);
+        when(pm.getInstalledVersions()).thenReturn(Collections.<String, VersionNumber>emptyMap());
+        when(jenkins.getPluginManager()).thenReturn(pm);
     }
 
     private HashMap<String, PluginMetadata> plugins = new HashMap<>();
@@ -80,6 +92,54 @@ public class UpdateCenterMetadataTest {
         assertThat(ucm.transitiveDependenciesOf(jenkins, specs("provider@1", "consumer@1")), Matchers.contains(plugins.get("provider"), plugins.get("consumer")));
     }
 
+    @Test
+    public void transitiveDependenciesOfNotRunning() throws Exception {
+        VersionNumber core = new VersionNumber("2");
+        Map<String, VersionNumber> installed = new HashMap<>();
+        assertThat(ucm.transitiveDependenciesOf(core, installed, specs("consumer")), Matchers.contains(plugins.get("provider"), plugins.get("consumer")));
+
+        installed.put("provider", new VersionNumber("0.9"));
+        assertThat(ucm.transitiveDependenciesOf(core, installed, specs("consumer")), Matchers.contains(plugins.get("provider"), plugins.get("consumer")));
+
+        installed.put("provider", new VersionNumber("1"));
+        assertThat(ucm.transitiveDependenciesOf(core, installed, specs("consumer")), Matchers.contains(plugins.get("consumer")));
+    }
+
+    @Test
+    public void transitiveDependenciesOfConflictingVersions() throws Exception {
+        plugins.put("shared", new PluginMetadata("shared", "jenkins:shared:3", "3", "3", NO_DEPS));
+        plugins.put("old", new PluginMetadata("old", "jenkins:old:1", "1", "1", Collections.singletonList(new Dependency("shared:1"))));
+        plugins.put("new", new PluginMetadata("new", "jenkins:new:1", "1", "1", Collections.singletonList(new Dependency("shared:2"))));
+        UpdateCenterMetadata ucm = UpdateCenterMetadata.get("id", plugins);
+
+        // Latest shared requires newer core, the newest version required is used instead
+        List<PluginMetadata> plan = ucm.transitiveDependenciesOf(new VersionNumber("2"), Collections.<String, VersionNumber>emptyMap(), specs("old", "new"));
+        assertThat(plan.get(0).getName(), Matchers.equalTo("shared"));
+        assertThat(plan.get(0).getVersion(), Matchers.equalTo("2"));
+        assertThat(plan.subList(1, 3), Matchers.containsInAnyOrder(plugins.get("old"), plugins.get("new")));
+
+        // Memoized closure is filtered by what is installed
+        plan = ucm.transitiveDependenciesOf(new VersionNumber("2"), Collections.singletonMap("shared", new VersionNumber("2")), specs("new", "old"));
+        assertThat(plan, Matchers.containsInAnyOrder(plugins.get("old"), plugins.get("new")));
+    }
+
+    @Test
+    public void parse() throws Exception {
+        String json = "{\"connectionCheckUrl\":\"http://www.google.com/\",\"core\":{\"name\":\"core\",\"version\":\"2.1\"},\"id\":\"default\"," +
+                "\"plugins\":{\"consumer\":{\"name\":\"consumer\",\"gav\":\"jenkins:consumer:1\",\"version\":\"1\",\"requiredCore\":\"1\"," +
+                "\"dependencies\":[{\"name\":\"provider\",\"optional\":false,\"version\":\"1\"}],\"title\":\"Consumer \u00e9\"}," +
+                "\"provider\":{\"name\":\"provider\",\"gav\":\"jenkins:provider:1\",\"version\":\"1\",\"requiredCore\":\"1\",\"dependencies\":[]}}," +
+                "\"updateCenterVersion\":\"1\"}";
+        File data = tmp.newFile("update-center.json");
+        FileUtils.write(data, "updateCenter.post(\n" + json + "\n);", "UTF-8");
+
+        UpdateCenterMetadata parsed = UpdateCenterMetadata.parse(data);
+        assertThat(parsed.id, Matchers.equalTo("default"));
+        assertThat(parsed.plugins.keySet(), Matchers.containsInAnyOrder("consumer", "provider"));
+        assertThat(parsed.plugins.get("consumer").getDependencies().get(0).get(), Matchers.sameInstance(parsed.plugins.get("provider")));
+        assertThat(parsed.getOriginalJSON(), Matchers.equalTo(json));
+    }
+
     private List<PluginSpec> specs(String... specs) {
         ArrayList<PluginSpec> ret = new ArrayList<>(specs.length);
         for (String spec : specs) {
@@ -0,0 +1,39 @@
+package org.jenkinsci.test.acceptance.utils;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+
+public class ElasticTimeTest {
+
+    private static final int CORES = Runtime.getRuntime().availableProcessors();
+
+    @Test
+    public void fastIdleHostDoesNotInflateTimeouts() {
+        ElasticTime.Calibration c = new ElasticTime.Calibration(0.5);
+        assertThat(c.slowdown(8, 1.0, 0), closeTo(1.0, 0.001));
+        assertThat(c.slowdown(8, 1.5, 0), closeTo(1.5, 0.001));
+    }
+
+    @Test
+    public void slowHost() {
+        ElasticTime.Calibration c = new ElasticTime.Calibration(3);
+        assertThat(c.slowdown(8, 1.0, 0), closeTo(3, 0.001));
+
+        // Boot times take over once known
+        c.boot(60000);
+        assertThat(c.slowdown(8, 1.0, 0), closeTo(2, 0.001));
+        c.boot(30000);
+        assertThat(c.slowdown(8, 1.0, 0), closeTo(1.7, 0.001));
+    }
+
+    @Test
+    public void loadedHost() {
+        ElasticTime.Calibration c = new ElasticTime.Calibration(1);
+        assertThat(c.slowdown(8, 1.0, 4 * CORES), closeTo(4, 0.001));
+
+        // Capped at twice the static factor
+        assertThat(c.slowdown(1, 1.0, 4 * CORES), closeTo(2, 0.001));
+    }
+}
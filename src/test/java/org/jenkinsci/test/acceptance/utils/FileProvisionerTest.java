@@ -0,0 +1,71 @@
+package org.jenkinsci.test.acceptance.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assume.assumeNoException;
+
+public class FileProvisionerTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void copy() throws Exception {
+        File from = template();
+        File to = new File(tmp.getRoot(), "to");
+
+        FileProvisioner.Result result = new FileProvisioner(FileProvisioner.Mode.COPY).provision(from, to);
+        assertThat(result.copiedBytes, equalTo(12L));
+        assertThat(result.linkedBytes, equalTo(0L));
+        assertContent(to);
+        assertThat(Files.isSameFile(new File(from, "a.jpi").toPath(), new File(to, "a.jpi").toPath()), equalTo(false));
+    }
+
+    @Test
+    public void hardlink() throws Exception {
+        File from = template();
+        File to = new File(tmp.getRoot(), "to");
+
+        assumeHardlinksSupported(from);
+
+        FileProvisioner.Result result = new FileProvisioner(FileProvisioner.Mode.HARDLINK).provision(from, to);
+        assertThat(result.linkedBytes, equalTo(12L));
+        assertThat(result.copiedBytes, equalTo(0L));
+        assertContent(to);
+        // Both in the temporary folder, so on the same filesystem
+        assertThat(Files.isSameFile(new File(from, "a.jpi").toPath(), new File(to, "a.jpi").toPath()), equalTo(true));
+        assertThat(Files.isSameFile(new File(from, "nested/b.jpi").toPath(), new File(to, "nested/b.jpi").toPath()), equalTo(true));
+    }
+
+    private void assumeHardlinksSupported(File dir) throws Exception {
+        File probe = new File(dir.getParentFile(), "probe");
+        try {
+            Files.createLink(probe.toPath(), new File(dir, "a.jpi").toPath());
+        } catch (IOException | UnsupportedOperationException e) {
+            assumeNoException("Hard links not supported in " + dir, e);
+        } finally {
+            Files.deleteIfExists(probe.toPath());
+        }
+    }
+
+    private File template() throws Exception {
+        File from = tmp.newFolder("from");
+        FileUtils.write(new File(from, "a.jpi"), "aaaaaa", "UTF-8");
+        FileUtils.write(new File(from, "nested/b.jpi"), "bbbbbb", "UTF-8");
+        return from;
+    }
+
+    private void assertContent(File to) throws Exception {
+        assertThat(FileUtils.readFileToString(new File(to, "a.jpi"), "UTF-8"), equalTo("aaaaaa"));
+        assertThat(FileUtils.readFileToString(new File(to, "nested/b.jpi"), "UTF-8"), equalTo("bbbbbb"));
+    }
+}
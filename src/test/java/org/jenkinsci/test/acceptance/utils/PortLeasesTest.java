@@ -0,0 +1,58 @@
+package org.jenkinsci.test.acceptance.utils;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.equalTo;
+
+public class PortLeasesTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void leasesDoNotOverlap() throws Exception {
+        PortLeases first = new PortLeases(tmp.getRoot());
+        PortLeases second = new PortLeases(tmp.getRoot());
+
+        int a = first.next();
+        int b = second.next();
+        // Distinct blocks
+        assertThat(a / 100, not(equalTo(b / 100)));
+        assertThat(first.next(), not(equalTo(a)));
+    }
+
+    @Test
+    public void explicitRange() throws Exception {
+        PortLeases leases = new PortLeases(tmp.getRoot());
+
+        try (PortLeases.Lease first = leases.lease(5900, 6000); PortLeases.Lease second = leases.lease(5900, 6000)) {
+            assertThat(first.getPort(), not(equalTo(second.getPort())));
+            assertThat(second.getPort(), greaterThanOrEqualTo(5900));
+            assertThat(second.getPort(), lessThanOrEqualTo(6000));
+        }
+    }
+
+    @Test
+    public void releasedLeaseIsAvailableAgain() throws Exception {
+        PortLeases leases = new PortLeases(tmp.getRoot());
+
+        int port;
+        try (PortLeases.Lease lease = leases.lease(5900, 6000)) {
+            port = lease.getPort();
+            // Held by this JVM, not handed out again even through other instance
+            try (PortLeases.Lease other = new PortLeases(tmp.getRoot()).lease(5900, 6000)) {
+                assertThat(other.getPort(), not(equalTo(port)));
+            }
+        }
+
+        try (PortLeases.Lease again = new PortLeases(tmp.getRoot()).lease(port, port)) {
+            assertThat(again.getPort(), equalTo(port));
+        }
+    }
+}
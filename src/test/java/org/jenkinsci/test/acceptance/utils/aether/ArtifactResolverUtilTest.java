@@ -0,0 +1,115 @@
+package org.jenkinsci.test.acceptance.utils.aether;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.repository.LocalRepository;
+import org.eclipse.aether.resolution.ArtifactRequest;
+import org.eclipse.aether.resolution.ArtifactResolutionException;
+import org.eclipse.aether.resolution.ArtifactResult;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ArtifactResolverUtilTest {
+
+    private RepositorySystem system;
+    private ArtifactResolverUtil resolver;
+
+    @Before
+    public void setUp() {
+        system = mock(RepositorySystem.class);
+        resolver = new ArtifactResolverUtil(system, mock(RepositorySystemSession.class));
+    }
+
+    @Test
+    public void resolveAllInOrder() throws Exception {
+        when(system.resolveArtifact(any(RepositorySystemSession.class), any(ArtifactRequest.class))).then(new Answer<ArtifactResult>() {
+            @Override public ArtifactResult answer(InvocationOnMock invocation) throws Throwable {
+                ArtifactRequest request = (ArtifactRequest) invocation.getArguments()[1];
+                // Resolve the first artifacts last
+                Thread.sleep(100 - 10 * Integer.parseInt(request.getArtifact().getVersion()));
+                return resolved(request);
+            }
+        });
+
+        List<Artifact> artifacts = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            artifacts.add(new DefaultArtifact("org.jenkins-ci.plugins", "plugin" + i, "hpi", String.valueOf(i)));
+        }
+
+        List<ArtifactResult> results = resolver.resolveAll(artifacts);
+        assertThat(results, hasSize(artifacts.size()));
+        for (int i = 0; i < artifacts.size(); i++) {
+            assertThat(results.get(i).getArtifact(), equalTo(artifacts.get(i)));
+        }
+        assertThat(resolver.getReport(), hasSize(artifacts.size()));
+        assertThat(resolver.getReport().get(0).cached, equalTo(true));
+
+        resolver.clearReport();
+        assertThat(resolver.getReport(), empty());
+    }
+
+    @Test
+    public void resolveAllFailure() throws Exception {
+        final Artifact missing = new DefaultArtifact("org.jenkins-ci.plugins:missing:hpi:1");
+        when(system.resolveArtifact(any(RepositorySystemSession.class), any(ArtifactRequest.class))).then(new Answer<ArtifactResult>() {
+            @Override public ArtifactResult answer(InvocationOnMock invocation) throws Throwable {
+                ArtifactRequest request = (ArtifactRequest) invocation.getArguments()[1];
+                if (request.getArtifact().equals(missing)) {
+                    throw new ArtifactResolutionException(Collections.singletonList(new ArtifactResult(request)));
+                }
+                return resolved(request);
+            }
+        });
+
+        try {
+            resolver.resolveAll(Arrays.asList(new DefaultArtifact("org.jenkins-ci.plugins:present:hpi:1"), missing));
+            fail();
+        } catch (RuntimeException e) {
+            assertThat(e.getMessage(), equalTo("Could not resolve " + missing + " from Maven repository"));
+            assertThat(e.getCause(), instanceOf(ArtifactResolutionException.class));
+        }
+    }
+
+    @Test
+    public void reportIsBounded() throws Exception {
+        when(system.resolveArtifact(any(RepositorySystemSession.class), any(ArtifactRequest.class))).then(new Answer<ArtifactResult>() {
+            @Override public ArtifactResult answer(InvocationOnMock invocation) throws Throwable {
+                return resolved((ArtifactRequest) invocation.getArguments()[1]);
+            }
+        });
+
+        for (int i = 0; i <= ArtifactResolverUtil.REPORT_SIZE; i++) {
+            resolver.resolve(new DefaultArtifact("org.jenkins-ci.plugins", "plugin", "hpi", String.valueOf(i)));
+        }
+        List<ArtifactResolverUtil.Resolution> report = resolver.getReport();
+        assertThat(report, hasSize(ArtifactResolverUtil.REPORT_SIZE));
+        assertThat(report.get(0).artifact, equalTo("org.jenkins-ci.plugins:plugin:hpi:1"));
+    }
+
+    private static ArtifactResult resolved(ArtifactRequest request) {
+        ArtifactResult result = new ArtifactResult(request);
+        result.setArtifact(request.getArtifact());
+        result.setRepository(new LocalRepository(new File("target/local-repo")));
+        return result;
+    }
+}